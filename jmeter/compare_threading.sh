@@ -0,0 +1,80 @@
+#!/bin/bash -e
+
+# Runs the local JMeter plan twice against the service: once on the platform-thread
+# Tomcat pool and once on virtual threads, then prints a side-by-side summary.
+#
+# Prerequisites: MongoDB running (./start_mongo_only.sh), the jar built (./gradlew build),
+# JDK 21 and the `jmeter` binary on the PATH.
+#
+# Tunables (environment variables):
+#   THREADS   concurrent JMeter users          (default 200)
+#   LOOPS     iterations per JMeter user       (default 50)
+#   RAMPUP    ramp-up period in seconds        (default 10)
+#   PORT      port the service listens on      (default 8080)
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+JAR="$ROOT_DIR/build/libs/prod-eng-0.0.1-SNAPSHOT.jar"
+OUT_DIR="$ROOT_DIR/build/reports/jmeter"
+
+THREADS=${THREADS:-200}
+LOOPS=${LOOPS:-50}
+RAMPUP=${RAMPUP:-10}
+PORT=${PORT:-8080}
+
+if [ ! -f "$JAR" ]; then
+    echo "Missing $JAR, run ./gradlew build first"
+    exit 1
+fi
+
+mkdir -p "$OUT_DIR"
+
+run_mode() {
+    local mode=$1
+    local virtual=$2
+    local results="$OUT_DIR/results-$mode.jtl"
+
+    echo "Starting service with virtual threads = $virtual"
+    VIRTUAL_THREADS_ENABLED=$virtual java -jar "$JAR" --server.port="$PORT" > "$OUT_DIR/service-$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    rm -rf "$results" "$OUT_DIR/report-$mode"
+    jmeter -n -t "$SCRIPT_DIR/todo_test_plan_local.jmx" \
+        -Jthreads="$THREADS" -Jloops="$LOOPS" -Jrampup="$RAMPUP" -Jport="$PORT" \
+        -l "$results" -e -o "$OUT_DIR/report-$mode"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+summarize() {
+    local mode=$1
+    # JTL CSV columns: timeStamp,elapsed,label,responseCode,...,success,...
+    # Sorted by elapsed here so the percentiles need no gawk-only asort
+    tail -n +2 "$OUT_DIR/results-$mode.jtl" | sort -t, -k2,2n | awk -F, -v mode="$mode" '
+        function percentile(q,    i) {
+            i = int(n * q); if (i < n * q) i++; if (i < 1) i = 1
+            return elapsed[i]
+        }
+        { elapsed[++n] = $2; if ($8 != "true") errors++
+          if (n == 1 || $1 < first) first = $1
+          if ($1 + $2 > last) last = $1 + $2 }
+        END {
+            printf "%-10s samples=%d errors=%d p50=%dms p99=%dms throughput=%.1f req/s\n",
+                mode, n, errors, percentile(0.50), percentile(0.99), n / ((last - first) / 1000)
+        }'
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo
+summarize platform
+summarize virtual
+echo "HTML reports: $OUT_DIR/report-platform and $OUT_DIR/report-virtual"
@@ -0,0 +1,86 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.service.AssigneeDeletionPolicy;
+import ro.unibuc.prodeng.service.DoneStateBuffer;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.service.UserService;
+
+import static ro.unibuc.prodeng.benchmark.InMemoryRepositories.inject;
+
+/**
+ * Wires the services by hand with the same defaults as application.properties, without a Spring context.
+ */
+final class BenchmarkServices {
+
+    static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private BenchmarkServices() {
+    }
+
+    static UserService userService(UserRepository userRepository, TodoRepository todoRepository) {
+        UserService userService = new UserService();
+        inject(userService, "userRepository", userRepository);
+        inject(userService, "todoRepository", todoRepository);
+        inject(userService, "userCache", new UserCache(10_000, Duration.ofMinutes(5), new SimpleMeterRegistry()));
+        inject(userService, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        inject(userService, "maxPageSize", 1000);
+        inject(userService, "deletionPolicy", AssigneeDeletionPolicy.ORPHAN);
+        inject(userService, "reassignToEmail", "frodo@theshire.me");
+        inject(userService, "denormalizeAssignee", false);
+        return userService;
+    }
+
+    static TodoService todoService(TodoRepository todoRepository, UserService userService, boolean denormalizeAssignee) {
+        TodoService todoService = new TodoService();
+        inject(todoService, "todoRepository", todoRepository);
+        inject(todoService, "userService", userService);
+        inject(todoService, "validator", VALIDATOR);
+        inject(todoService, "doneBuffer", new DoneStateBuffer());
+        inject(todoService, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        inject(todoService, "maxBatchSize", 10_000);
+        inject(todoService, "maxPageSize", 1000);
+        inject(todoService, "denormalizeAssignee", denormalizeAssignee);
+        return todoService;
+    }
+
+    static List<UserEntity> users(int count) {
+        List<UserEntity> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new UserEntity(new ObjectId().toHexString(), "User " + i, "user" + i + "@example.com", 0L, Instant.now()));
+        }
+        return users;
+    }
+
+    static List<TodoEntity> todos(UserEntity assignee, int count, boolean denormalizeAssignee) {
+        List<TodoEntity> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            todos.add(new TodoEntity(
+                    new ObjectId().toHexString(),
+                    "Todo number " + i,
+                    i % 2 == 0,
+                    assignee.id(),
+                    denormalizeAssignee ? assignee.name() : null,
+                    denormalizeAssignee ? assignee.email() : null,
+                    (long) i,
+                    Instant.now()
+            ));
+        }
+        return todos;
+    }
+}
@@ -0,0 +1,83 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.UserRepository;
+
+/**
+ * Repository stubs backed by pre-built maps, so that benchmarks measure the service and mapping code
+ * rather than a database. Only the methods the benchmarked service calls are implemented.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static TodoRepository todos(List<TodoEntity> todos) {
+        Map<String, List<TodoEntity>> byAssignee = todos.stream()
+                .collect(Collectors.groupingBy(TodoEntity::assignedUserId));
+        Map<String, TodoEntity> byId = todos.stream()
+                .collect(Collectors.toMap(TodoEntity::id, Function.identity()));
+        return proxy(TodoRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findByAssignedUserId" -> byAssignee.getOrDefault((String) args[0], List.of());
+            case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+            case "insertUnordered" -> Map.of();
+            default -> unsupported(proxy, method.getName(), args);
+        });
+    }
+
+    static UserRepository users(List<UserEntity> users) {
+        Map<String, UserEntity> byId = users.stream()
+                .collect(Collectors.toMap(UserEntity::id, Function.identity()));
+        Map<String, UserEntity> byEmail = users.stream()
+                .collect(Collectors.toMap(UserEntity::email, Function.identity()));
+        return proxy(UserRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findAll" -> users;
+            case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+            case "findByEmail" -> Optional.ofNullable(byEmail.get((String) args[0]));
+            case "findByEmailIn" -> ((Collection<?>) args[0]).stream()
+                    .map(byEmail::get)
+                    .filter(user -> user != null)
+                    .toList();
+            case "findPage" -> users.subList(0, Math.min((int) args[1], users.size()));
+            default -> unsupported(proxy, method.getName(), args);
+        });
+    }
+
+    /**
+     * Sets a field of a service the way Spring's field injection would.
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Object unsupported(Object proxy, String method, Object[] args) {
+        return switch (method) {
+            case "toString" -> "InMemoryRepository";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
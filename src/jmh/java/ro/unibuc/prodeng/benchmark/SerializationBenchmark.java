@@ -0,0 +1,71 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.UserResponse;
+
+/**
+ * Jackson serialization of response lists, as written by the list endpoints, in each negotiable media type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<TodoResponse> todos;
+    private List<UserResponse> users;
+
+    @Setup
+    public void setUp() {
+        // Configured like the ObjectMappers Spring Boot auto-configures
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        todos = IntStream.range(0, size)
+                .mapToObj(i -> new TodoResponse("65f0000000000000000" + String.format("%05d", i),
+                        "Todo number " + i, i % 2 == 0, "User " + i, "user" + i + "@example.com", (long) i))
+                .toList();
+        users = IntStream.range(0, size)
+                .mapToObj(i -> new UserResponse("65f0000000000000000" + String.format("%05d", i),
+                        "User " + i, "user" + i + "@example.com", (long) i))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeTodos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
@@ -0,0 +1,61 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.service.TodoService;
+import ro.unibuc.prodeng.service.UserService;
+
+/**
+ * Entity to response mapping of a user's todos, and the validation and mapping work of a batch create.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TodoServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int todos;
+
+    private TodoService todoService;
+    private String assigneeEmail;
+    private List<CreateTodoRequest> batch;
+
+    @Setup
+    public void setUp() {
+        List<UserEntity> users = BenchmarkServices.users(1);
+        UserEntity assignee = users.get(0);
+        TodoRepository todoRepository = InMemoryRepositories.todos(BenchmarkServices.todos(assignee, todos, false));
+        UserService userService = BenchmarkServices.userService(InMemoryRepositories.users(users), todoRepository);
+        todoService = BenchmarkServices.todoService(todoRepository, userService, false);
+        assigneeEmail = assignee.email();
+        batch = IntStream.range(0, todos)
+                .mapToObj(i -> new CreateTodoRequest("Todo number " + i, assigneeEmail))
+                .toList();
+    }
+
+    @Benchmark
+    public List<TodoResponse> getTodosByUserEmail() {
+        return todoService.getTodosByUserEmail(assigneeEmail);
+    }
+
+    @Benchmark
+    public List<BatchItemResponse<TodoResponse>> createTodos() {
+        return todoService.createTodos(batch);
+    }
+}
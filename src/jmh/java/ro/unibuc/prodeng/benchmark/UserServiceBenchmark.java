@@ -0,0 +1,58 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.UserService;
+
+/**
+ * User to response mapping for the list and page endpoints, and the cached lookup every todo request starts with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int users;
+
+    private UserService userService;
+    private String email;
+
+    @Setup
+    public void setUp() {
+        List<UserEntity> entities = BenchmarkServices.users(users);
+        userService = BenchmarkServices.userService(InMemoryRepositories.users(entities), InMemoryRepositories.todos(List.of()));
+        email = entities.get(users / 2).email();
+        // Warm the cache so the lookup benchmark measures hits
+        userService.getUserEntityByEmail(email);
+    }
+
+    @Benchmark
+    public List<UserResponse> getAllUsers() {
+        return userService.getAllUsers();
+    }
+
+    @Benchmark
+    public PageResponse<UserResponse> getUsersPageWithProjection() {
+        return userService.getUsersPage(null, 100, Set.of("id", "email"));
+    }
+
+    @Benchmark
+    public UserEntity getUserEntityByEmail() {
+        return userService.getUserEntityByEmail(email);
+    }
+}
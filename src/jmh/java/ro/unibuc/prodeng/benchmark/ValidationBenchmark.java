@@ -0,0 +1,36 @@
+package ro.unibuc.prodeng.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import jakarta.validation.ConstraintViolation;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+
+/**
+ * Bean validation of a create request, which runs for every POST /api/todos and every batch item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    private final CreateTodoRequest valid = new CreateTodoRequest("Buy milk", "alice@example.com");
+    private final CreateTodoRequest invalid = new CreateTodoRequest(" ", "not-an-email");
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoRequest>> validRequest() {
+        return BenchmarkServices.VALIDATOR.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateTodoRequest>> invalidRequest() {
+        return BenchmarkServices.VALIDATOR.validate(invalid);
+    }
+}
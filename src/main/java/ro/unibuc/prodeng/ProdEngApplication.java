@@ -3,6 +3,9 @@ package ro.unibuc.prodeng;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 import ro.unibuc.prodeng.repository.UserRepository;
@@ -13,7 +16,12 @@ import ro.unibuc.prodeng.service.UserService;
 
 import jakarta.annotation.PostConstruct;
 
-@SpringBootApplication
+// The reactive Mongo client is built by ReactiveMongoConfig, and only when running the reactive stack
+@SpringBootApplication(exclude = {
+		MongoReactiveAutoConfiguration.class,
+		MongoReactiveDataAutoConfiguration.class,
+		MongoReactiveRepositoriesAutoConfiguration.class
+})
 @EnableMongoRepositories
 public class ProdEngApplication {
 
@@ -0,0 +1,265 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ro.unibuc.prodeng.service.DoneStateBuffer;
+
+/**
+ * Keeps the in-process state of this instance coherent with writes made by the other replicas, by following
+ * the change streams of the {@code users} and {@code todos} collections (enabled with
+ * {@code prodeng.change-streams.enabled}, requires a replica set).
+ * Changed and deleted users are dropped from the {@link UserCache}; deleted todos are dropped from the
+ * {@link DoneStateBuffer}. The resume token of each stream is checkpointed per consumer id, so that a
+ * restarted instance with the same id continues where it stopped. When the oplog no longer holds that
+ * point, the caches are cleared and the stream starts over from now.
+ */
+@Component
+@ConditionalOnProperty(name = "prodeng.change-streams.enabled", havingValue = "true")
+public class ChangeStreamCacheSync {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamCacheSync.class);
+
+    static final String TOKENS_COLLECTION = "change_stream_tokens";
+
+    // ChangeStreamFatalError and ChangeStreamHistoryLost: the resume token is gone from the oplog
+    private static final Set<Integer> RESUME_POINT_LOST = Set.of(280, 286);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private DoneStateBuffer doneBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${prodeng.change-streams.consumer-id:local}")
+    private String consumerId;
+
+    @Value("${prodeng.change-streams.checkpoint-interval:1s}")
+    private Duration checkpointInterval;
+
+    private final List<Watcher> watchers = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        // Tokens of consumers that are gone for good are cleaned up eventually
+        mongoTemplate.getCollection(TOKENS_COLLECTION)
+                .createIndex(Indexes.ascending("updatedAt"), new IndexOptions().expireAfter(7L, TimeUnit.DAYS));
+        watchers.add(new Watcher("users", this::onUserChanged, userCache::invalidateAll));
+        watchers.add(new Watcher("todos", this::onTodoChanged, () -> { }));
+        watchers.forEach(Watcher::start);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Watcher watcher : watchers) {
+            watcher.stop();
+        }
+    }
+
+    private void onUserChanged(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case UPDATE -> {
+                BsonValue version = change.getUpdateDescription().getUpdatedFields().get("version");
+                if (version != null && version.isNumber()) {
+                    userCache.invalidateIfOlder(id(change), version.asNumber().longValue());
+                } else {
+                    userCache.invalidate(id(change));
+                }
+            }
+            case REPLACE, DELETE -> userCache.invalidate(id(change));
+            case DROP, DROP_DATABASE, RENAME, INVALIDATE -> userCache.invalidateAll();
+            default -> {
+                // Inserts can't make a cached user stale
+            }
+        }
+    }
+
+    private void onTodoChanged(ChangeStreamDocument<Document> change) {
+        if (change.getOperationType() == OperationType.DELETE) {
+            doneBuffer.discard(id(change));
+        }
+    }
+
+    private static String id(ChangeStreamDocument<Document> change) {
+        BsonValue id = change.getDocumentKey().get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    /**
+     * Follows the change stream of one collection on its own thread, checkpointing and reporting its lag.
+     */
+    private class Watcher implements Runnable {
+
+        private final String collection;
+        private final Consumer<ChangeStreamDocument<Document>> handler;
+        private final Runnable onResumePointLost;
+        private final String tokenId;
+        private final AtomicLong lagMillis = new AtomicLong();
+        private final Thread thread;
+
+        private volatile boolean running = true;
+        private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+        private BsonDocument checkpointed;
+        private Instant checkpointedAt = Instant.EPOCH;
+
+        Watcher(String collection, Consumer<ChangeStreamDocument<Document>> handler, Runnable onResumePointLost) {
+            this.collection = collection;
+            this.handler = handler;
+            this.onResumePointLost = onResumePointLost;
+            this.tokenId = consumerId + ":" + collection;
+            this.thread = new Thread(this, "change-stream-" + collection);
+            this.thread.setDaemon(true);
+            TimeGauge.builder("prodeng.changestream.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                    .description("Delay between a write and its change event reaching this instance, 0 when caught up")
+                    .tag("collection", collection)
+                    .register(meterRegistry);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+            if (current != null) {
+                current.close();
+            }
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        @Override
+        public void run() {
+            BsonDocument token = loadToken();
+            while (running) {
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> opened = open(token)) {
+                    cursor = opened;
+                    while (running) {
+                        ChangeStreamDocument<Document> change = opened.tryNext();
+                        if (change == null) {
+                            lagMillis.set(0);
+                        } else {
+                            handle(change);
+                        }
+                        // Also advances while idle, so a restart doesn't replay an old window
+                        token = opened.getResumeToken();
+                        checkpoint(token);
+                    }
+                } catch (MongoCommandException e) {
+                    if (!RESUME_POINT_LOST.contains(e.getErrorCode())) {
+                        retryLater(e);
+                        continue;
+                    }
+                    log.warn("Change stream of {} can't resume from its token, clearing local state", collection, e);
+                    token = null;
+                    onResumePointLost.run();
+                } catch (RuntimeException e) {
+                    // Includes the cursor being closed by stop()
+                    retryLater(e);
+                }
+            }
+        }
+
+        private void handle(ChangeStreamDocument<Document> change) {
+            handler.accept(change);
+            Counter.builder("prodeng.changestream.events")
+                    .description("Change events applied to the local state")
+                    .tag("collection", collection)
+                    .tag("operation", change.getOperationTypeString())
+                    .register(meterRegistry)
+                    .increment();
+            if (change.getClusterTime() != null) {
+                long writtenAt = TimeUnit.SECONDS.toMillis(change.getClusterTime().getTime());
+                // The cluster time has a one second resolution
+                lagMillis.set(Math.max(0, System.currentTimeMillis() - writtenAt));
+            }
+        }
+
+        private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(BsonDocument token) {
+            ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection).watch()
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (token != null) {
+                stream = stream.resumeAfter(token);
+            }
+            return stream.cursor();
+        }
+
+        private void retryLater(RuntimeException e) {
+            if (!running) {
+                return;
+            }
+            log.warn("Change stream of {} failed, reopening it", collection, e);
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+
+        private BsonDocument loadToken() {
+            BsonDocument stored = tokens().find(Filters.eq("_id", tokenId)).first();
+            return stored == null ? null : stored.getDocument("token");
+        }
+
+        private void checkpoint(BsonDocument token) {
+            Instant now = Instant.now();
+            if (token == null || token.equals(checkpointed) || now.isBefore(checkpointedAt.plus(checkpointInterval))) {
+                return;
+            }
+            tokens().replaceOne(Filters.eq("_id", tokenId),
+                    new BsonDocument("_id", new BsonString(tokenId))
+                            .append("token", token)
+                            .append("updatedAt", new BsonDateTime(now.toEpochMilli())),
+                    new ReplaceOptions().upsert(true));
+            checkpointed = token;
+            checkpointedAt = now;
+        }
+
+        private MongoCollection<BsonDocument> tokens() {
+            return mongoTemplate.getDb().getCollection(TOKENS_COLLECTION, BsonDocument.class);
+        }
+    }
+}
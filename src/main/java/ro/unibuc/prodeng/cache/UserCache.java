@@ -0,0 +1,98 @@
+package ro.unibuc.prodeng.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Bounded in-process cache of {@link UserEntity} lookups, indexed both by id and by email.
+ * The email index only maps an email to an id, so dropping a user by id is a single removal;
+ * an email whose cached user no longer carries it is treated as a miss.
+ * Entries expire after a fixed time-to-live; writes that change a user must go through
+ * {@link #put(UserEntity)} or {@link #invalidate(String)} so stale names are never served.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserEntity> byId;
+    private final Cache<String, String> idByEmail;
+
+    public UserCache(
+            @Value("${prodeng.cache.users.maximum-size:10000}") long maximumSize,
+            @Value("${prodeng.cache.users.ttl:5m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.byId = build(maximumSize, ttl);
+        this.idByEmail = build(maximumSize, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByEmail, "users.byEmail");
+    }
+
+    public Optional<UserEntity> getById(String id, Function<String, Optional<UserEntity>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).map(this::indexByEmail).orElse(null)));
+    }
+
+    public Optional<UserEntity> getByEmail(String email, Function<String, Optional<UserEntity>> loader) {
+        String id = idByEmail.getIfPresent(email);
+        UserEntity cached = id == null ? null : byId.getIfPresent(id);
+        if (cached != null && email.equals(cached.email())) {
+            return Optional.of(cached);
+        }
+        Optional<UserEntity> loaded = loader.apply(email);
+        loaded.ifPresentOrElse(this::put, () -> idByEmail.invalidate(email));
+        return loaded;
+    }
+
+    public void put(UserEntity user) {
+        invalidate(user.id());
+        byId.put(user.id(), user);
+        idByEmail.put(user.email(), user.id());
+    }
+
+    public void invalidate(String id) {
+        UserEntity cached = byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (cached != null) {
+            idByEmail.invalidate(cached.email());
+        }
+    }
+
+    /**
+     * Drops a user that was changed elsewhere, unless the cached entry is already at {@code version} or newer,
+     * as it is after a write made through this instance.
+     */
+    public void invalidateIfOlder(String id, long version) {
+        UserEntity cached = byId.getIfPresent(id);
+        if (cached != null && cached.version() != null && cached.version() >= version) {
+            return;
+        }
+        invalidate(id);
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        idByEmail.invalidateAll();
+    }
+
+    private UserEntity indexByEmail(UserEntity user) {
+        idByEmail.put(user.email(), user.id());
+        return user;
+    }
+
+    private static <V> Cache<String, V> build(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
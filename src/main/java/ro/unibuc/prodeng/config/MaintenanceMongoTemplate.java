@@ -0,0 +1,28 @@
+package ro.unibuc.prodeng.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.mongodb.client.MongoClient;
+
+/**
+ * Template for slow maintenance commands: startup index builds and bulk {@code $merge} rewrites.
+ * It runs on its own small client whose socket read timeout outlasts them, so request traffic
+ * keeps the short read timeout of the main client.
+ */
+public class MaintenanceMongoTemplate extends MongoTemplate implements DisposableBean {
+
+    private final MongoClient mongoClient;
+
+    public MaintenanceMongoTemplate(MongoClient mongoClient, String databaseName, MongoConverter converter) {
+        super(new SimpleMongoClientDatabaseFactory(mongoClient, databaseName), converter);
+        this.mongoClient = mongoClient;
+    }
+
+    @Override
+    public void destroy() {
+        mongoClient.close();
+    }
+}
@@ -2,21 +2,80 @@ package ro.unibuc.prodeng.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
 
+import ro.unibuc.prodeng.metrics.MongoRoundTrips;
+
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    // Maintenance commands run one at a time, at startup or from a single scheduled job
+    private static final int MAINTENANCE_POOL_MAX_SIZE = 2;
+
     @Value("${mongodb.connection.url}")
     private String connectionURL;
 
+    @Value("${mongodb.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @Value("${mongodb.pool.min-size:10}")
+    private int poolMinSize;
+
+    @Value("${mongodb.pool.max-connecting:4}")
+    private int poolMaxConnecting;
+
+    @Value("${mongodb.pool.max-wait:2s}")
+    private Duration poolMaxWait;
+
+    @Value("${mongodb.pool.max-idle-time:5m}")
+    private Duration poolMaxIdleTime;
+
+    @Value("${mongodb.socket.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${mongodb.socket.read-timeout:15s}")
+    private Duration readTimeout;
+
+    @Value("${mongodb.socket.maintenance-read-timeout:30m}")
+    private Duration maintenanceReadTimeout;
+
+    @Value("${mongodb.compressors:}")
+    private List<String> compressors;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MongoRoundTrips mongoRoundTrips;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
     @Override
     protected String getDatabaseName() {
         return "test";
@@ -24,15 +83,76 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
 
     @Override
     public MongoClient mongoClient() {
-        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
+        return MongoClients.create(clientSettings());
+    }
+
+    /**
+     * Settings shared by the blocking client and, in reactive mode, by the reactive client.
+     */
+    public MongoClientSettings clientSettings() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
                 .applyConnectionString(new ConnectionString(connectionURL))
-                .build();
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(poolMaxSize)
+                        .minSize(poolMinSize)
+                        .maxConnecting(poolMaxConnecting)
+                        .maxWaitTime(poolMaxWait.toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(poolMaxIdleTime.toMillis(), TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                        .addConnectionPoolListener(new MongoPoolCheckoutTimer(meterRegistry)))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .addCommandListener(mongoRoundTrips)
+                // One span per command, parented to the span of the calling request
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry, new ConnectionString(connectionURL)));
+
+        List<MongoCompressor> wireCompressors = compressors();
+        if (!wireCompressors.isEmpty()) {
+            // The server picks the first compressor of this list that it also supports
+            builder.compressorList(wireCompressors);
+        }
+
+        return builder.build();
+    }
 
-        return MongoClients.create(mongoClientSettings);
+    // Primary, so MongoTemplate injection points keep the request client and not the maintenance one
+    @Bean
+    @Primary
+    @Override
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
+        return super.mongoTemplate(databaseFactory, converter);
+    }
+
+    @Bean
+    public MaintenanceMongoTemplate maintenanceMongoTemplate(MappingMongoConverter converter) {
+        MongoClientSettings settings = MongoClientSettings.builder(clientSettings())
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(0)
+                        .maxSize(MAINTENANCE_POOL_MAX_SIZE))
+                .applyToSocketSettings(socket -> socket
+                        .readTimeout(maintenanceReadTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                .build();
+        return new MaintenanceMongoTemplate(MongoClients.create(settings), getDatabaseName(), converter);
     }
 
     @Override
     public Collection<String> getMappingBasePackages() {
         return Collections.singleton("ro.unibuc.prodeng.model");
     }
+
+    private List<MongoCompressor> compressors() {
+        return compressors.stream()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> switch (name.toLowerCase()) {
+                    case "zstd" -> MongoCompressor.createZstdCompressor();
+                    case "snappy" -> MongoCompressor.createSnappyCompressor();
+                    case "zlib" -> MongoCompressor.createZlibCompressor();
+                    default -> throw new IllegalArgumentException("Unsupported Mongo compressor: " + name);
+                })
+                .toList();
+    }
 }
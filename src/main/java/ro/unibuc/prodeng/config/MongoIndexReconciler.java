@@ -0,0 +1,115 @@
+package ro.unibuc.prodeng.config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoTombstone;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Creates the indexes declared on the mapped entities at startup and reports drift between
+ * the declared and the actual indexes of each collection. Index creation is not left to
+ * Spring Data's auto-index-creation so that build times and failures are observable.
+ * A unique index that cannot be built fails startup, since writes rely on it to reject duplicates.
+ */
+@Component
+public class MongoIndexReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexReconciler.class);
+
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(UserEntity.class, TodoEntity.class, TodoTombstone.class);
+
+    private static final String ID_INDEX = "_id_";
+
+    // Index builds on large collections outlast the request read timeout
+    @Autowired
+    private MaintenanceMongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void reconcile() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            reconcile(entity, resolver);
+        }
+    }
+
+    private void reconcile(Class<?> entity, IndexResolver resolver) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        Set<String> existing = indexNames(indexOps);
+        Set<String> declared = new HashSet<>();
+        List<IndexDefinition> missing = new ArrayList<>();
+        for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+            String name = index.getIndexOptions().getString("name");
+            declared.add(name);
+            if (!existing.contains(name)) {
+                missing.add(index);
+            }
+        }
+
+        for (IndexDefinition index : missing) {
+            String name = index.getIndexOptions().getString("name");
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "created";
+            try {
+                log.info("Building index {} on {}", name, collection);
+                indexOps.ensureIndex(index);
+            } catch (RuntimeException e) {
+                outcome = "failed";
+                log.error("Could not build index {} on {}", name, collection, e);
+                // Without it duplicates would be silently accepted, e.g. emails now that createUser has no pre-check
+                if (Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+                    throw new IllegalStateException("Could not build unique index " + name + " on " + collection, e);
+                }
+            } finally {
+                sample.stop(Timer.builder("prodeng.mongo.index.build")
+                        .description("Time spent building a declared index at startup")
+                        .tag("collection", collection)
+                        .tag("index", name)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+        }
+
+        Set<String> actual = indexNames(indexOps);
+        Set<String> absent = new HashSet<>(declared);
+        absent.removeAll(actual);
+        Set<String> undeclared = new HashSet<>(actual);
+        undeclared.remove(ID_INDEX);
+        undeclared.removeAll(declared);
+        if (!absent.isEmpty() || !undeclared.isEmpty()) {
+            log.warn("Index drift on {}: missing {}, undeclared {}", collection, absent, undeclared);
+        }
+        int drift = absent.size() + undeclared.size();
+        Gauge.builder("prodeng.mongo.indexes.drift", () -> drift)
+                .description("Declared indexes missing from the collection plus indexes not declared by the entity")
+                .tag("collection", collection)
+                .register(meterRegistry);
+    }
+
+    private Set<String> indexNames(IndexOperations indexOps) {
+        return indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,42 @@
+package ro.unibuc.prodeng.config;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long requests wait to check a connection out of the driver pool.
+ * Micrometer's pool listener only reports pool sizes, which hides queueing behind them.
+ */
+class MongoPoolCheckoutTimer implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+
+    MongoPoolCheckoutTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(event.getElapsedTime(TimeUnit.NANOSECONDS), event.getReason().name().toLowerCase());
+    }
+
+    private void record(long nanos, String outcome) {
+        Timer.builder("prodeng.mongo.pool.checkout")
+                .description("Time spent waiting for a pooled Mongo connection")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,47 @@
+package ro.unibuc.prodeng.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+/**
+ * Non-blocking stack, active when the service starts with {@code spring.main.web-application-type=reactive}.
+ * The reactive client shares its settings and the entity mapping with {@link MongoConfig}.
+ * The blocking client stays, off the event loops: the startup seed and the background workers
+ * (change streams, assignee snapshots) use it. Each client has its own connection pool.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableReactiveMongoRepositories(basePackages = "ro.unibuc.prodeng.repository.reactive")
+public class ReactiveMongoConfig {
+
+    @Autowired
+    private MongoConfig mongoConfig;
+
+    @Bean
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(mongoConfig.clientSettings());
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(
+                new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, mongoConfig.getDatabaseName()),
+                mappingMongoConverter);
+    }
+
+    // Spring MVC keeps Tomcat on the classpath; serve the reactive stack from Netty's event loops instead
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Maps entity versions to strong ETags and back. Spring answers {@code If-None-Match} on GET
+ * with a 304 by itself once the response carries an ETag, before the body is serialized.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        return withStatus(HttpStatus.OK, body, version);
+    }
+
+    static <T> ResponseEntity<T> withStatus(HttpStatus status, T body, Long version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (version != null) {
+            response.eTag("\"" + version + "\"");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * @return the version an {@code If-Match} header asks for, or null when the header is absent or {@code *}
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Falls through to the error below
+            }
+        }
+        throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+    }
+}
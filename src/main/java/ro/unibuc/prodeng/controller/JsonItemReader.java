@@ -0,0 +1,83 @@
+package ro.unibuc.prodeng.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads a request body one element at a time, either a JSON array or newline-delimited JSON.
+ * Malformed input ends the iteration instead of throwing, and is reported by {@link #error()}.
+ */
+final class JsonItemReader<T> implements Iterator<T> {
+
+    private final MappingIterator<T> items;
+    private int count;
+    private String error;
+    // Read ahead by hasNext(), so that an element failing to parse ends the iteration rather than failing next()
+    private T next;
+    private boolean ready;
+
+    private JsonItemReader(MappingIterator<T> items) {
+        this.items = items;
+    }
+
+    static <T> JsonItemReader<T> of(InputStream body, Class<T> type, ObjectMapper objectMapper) throws IOException {
+        try {
+            // A root-level array is unwrapped, otherwise the root-level values are read in sequence
+            return new JsonItemReader<>(objectMapper.readerFor(type).readValues(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready) {
+            return true;
+        }
+        if (error != null) {
+            return false;
+        }
+        try {
+            if (items.hasNextValue()) {
+                next = items.nextValue();
+                ready = true;
+            }
+        } catch (JsonProcessingException e) {
+            error = e.getOriginalMessage();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ready;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        count++;
+        return next;
+    }
+
+    /**
+     * Number of elements read so far, which is also the index of the element that failed to parse.
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * Why the body could not be read past {@link #count()} elements, or null if it was read to the end.
+     */
+    String error() {
+        return error;
+    }
+}
@@ -0,0 +1,30 @@
+package ro.unibuc.prodeng.controller;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a lazily evaluated stream as newline-delimited JSON, one element per line,
+ * closing the stream (and the database cursor behind it) once the response is written.
+ */
+final class NdjsonStreams {
+
+    private NdjsonStreams() {
+    }
+
+    static <T> StreamingResponseBody of(Stream<T> items, ObjectMapper objectMapper) {
+        return out -> {
+            try (items) {
+                Iterator<T> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+            }
+        };
+    }
+}
@@ -1,66 +1,139 @@
 package ro.unibuc.prodeng.controller;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
 import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.BulkTodoRequest;
 import ro.unibuc.prodeng.request.CreateTodoRequest;
 import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BulkTodoResponse;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.TodoChangesResponse;
 import ro.unibuc.prodeng.response.TodoResponse;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 import ro.unibuc.prodeng.service.TodoService;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/todos")
 public class TodoController {
 
     @Autowired
     private TodoService todoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoEventStreams todoEventStreams;
+
     @GetMapping
     public ResponseEntity<List<TodoResponse>> getTodosByUserEmail(@RequestParam String assigneeEmail) throws EntityNotFoundException {
         List<TodoResponse> todos = todoService.getTodosByUserEmail(assigneeEmail);
         return ResponseEntity.ok(todos);
     }
 
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<TodoResponse>> getTodosPageByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit) throws EntityNotFoundException {
+        PageResponse<TodoResponse> page = todoService.getTodosPageByUserEmail(assigneeEmail, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTodosByUserEmail(@RequestParam String assigneeEmail) throws EntityNotFoundException {
+        Stream<TodoResponse> todos = todoService.streamTodosByUserEmail(assigneeEmail);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.of(todos, objectMapper));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodoChanges(@RequestParam String assigneeEmail) throws EntityNotFoundException {
+        return todoEventStreams.subscribe(assigneeEmail, () -> todoService.getTodosByUserEmail(assigneeEmail));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<TodoChangesResponse> getTodoChangesByUserEmail(
+            @RequestParam String assigneeEmail,
+            @RequestParam(required = false) String since) throws EntityNotFoundException {
+        TodoChangesResponse changes = todoService.getTodoChangesByUserEmail(assigneeEmail, since);
+        return ResponseEntity.ok(changes);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TodoResponse> getTodoById(@PathVariable String id) throws EntityNotFoundException {
         TodoResponse todo = todoService.getTodoById(id);
-        return ResponseEntity.ok(todo);
+        return ETags.ok(todo, todo.version());
     }
 
     @PostMapping
     public ResponseEntity<TodoResponse> createTodo(@Valid @RequestBody CreateTodoRequest request) throws EntityNotFoundException {
         TodoResponse todo = todoService.createTodo(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(todo);
+        return ETags.withStatus(HttpStatus.CREATED, todo, todo.version());
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResponse<TodoResponse>>> createTodos(@RequestBody List<CreateTodoRequest> requests) {
+        List<BatchItemResponse<TodoResponse>> results = todoService.createTodos(requests);
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkTodoResponse> bulkUpdate(@Valid @RequestBody BulkTodoRequest request) throws EntityNotFoundException {
+        BulkTodoResponse result = todoService.bulkUpdate(request);
+        return ResponseEntity.ok(result);
     }
 
     @PatchMapping("/{id}/done")
-    public ResponseEntity<TodoResponse> setDone(@PathVariable String id, @RequestBody boolean done) throws EntityNotFoundException {
-        TodoResponse todo = todoService.setDone(id, done);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity<TodoResponse> setDone(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody boolean done) throws EntityNotFoundException {
+        TodoResponse todo = todoService.setDone(id, done, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(todo, todo.version());
     }
 
     @PatchMapping("/{id}/assignee")
-    public ResponseEntity<TodoResponse> assign(@PathVariable String id, @Valid @RequestBody AssignTodoRequest request) throws EntityNotFoundException {
-        TodoResponse todo = todoService.assign(id, request);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity<TodoResponse> assign(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody AssignTodoRequest request) throws EntityNotFoundException {
+        TodoResponse todo = todoService.assign(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(todo, todo.version());
     }
 
     @PatchMapping("/{id}/description")
-    public ResponseEntity<TodoResponse> edit(@PathVariable String id, @Valid @RequestBody EditTodoRequest request) throws EntityNotFoundException {
-        TodoResponse todo = todoService.edit(id, request);
-        return ResponseEntity.ok(todo);
+    public ResponseEntity<TodoResponse> edit(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody EditTodoRequest request) throws EntityNotFoundException {
+        TodoResponse todo = todoService.edit(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(todo, todo.version());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTodo(@PathVariable String id) throws EntityNotFoundException {
-        todoService.deleteTodo(id);
+    public ResponseEntity<Void> deleteTodo(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws EntityNotFoundException {
+        todoService.deleteTodo(id, ETags.parseIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
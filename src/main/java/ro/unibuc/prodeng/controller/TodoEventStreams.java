@@ -0,0 +1,240 @@
+package ro.unibuc.prodeng.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import ro.unibuc.prodeng.event.TodoChangedEvent;
+import ro.unibuc.prodeng.exception.TooManyStreamsException;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+/**
+ * Server-sent event streams of the todos of one assignee: a {@code snapshot} event with all their todos,
+ * then one event per {@link TodoChangedEvent}, named after its type.
+ * Each stream has a bounded queue drained by its own virtual thread, so a slow client never holds up the
+ * request that made the change. A client that falls {@code queue-size} events behind is disconnected and
+ * gets a fresh snapshot when it reconnects.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TodoEventStreams {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${prodeng.todos.stream.max-connections:1000}")
+    private int maxConnections;
+
+    @Value("${prodeng.todos.stream.max-connections-per-assignee:5}")
+    private int maxConnectionsPerAssignee;
+
+    @Value("${prodeng.todos.stream.queue-size:256}")
+    private int queueSize;
+
+    @Value("${prodeng.todos.stream.heartbeat:15s}")
+    private Duration heartbeat;
+
+    @Value("${prodeng.todos.stream.timeout:30m}")
+    private Duration timeout;
+
+    private final Map<String, Set<Subscription>> byAssignee = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private ThreadFactory senderThreads = Thread.ofVirtual().name("todo-stream").factory();
+
+    private Counter slowConsumers;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("prodeng.todos.stream.connections", connections, AtomicInteger::get)
+                .description("Open todo event streams")
+                .register(meterRegistry);
+        slowConsumers = Counter.builder("prodeng.todos.stream.slow.consumers")
+                .description("Todo event streams closed because the client fell too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for an assignee. It is registered before {@code snapshot} is read,
+     * so that a change made in between is sent after the snapshot rather than lost.
+     */
+    public SseEmitter subscribe(String assigneeEmail, Supplier<List<TodoResponse>> snapshot) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new TooManyStreamsException("Too many open todo streams, retry later");
+        }
+        Subscription subscription = new Subscription(assigneeEmail);
+        try {
+            byAssignee.compute(assigneeEmail, (email, subscriptions) -> {
+                Set<Subscription> current = subscriptions == null ? ConcurrentHashMap.newKeySet() : subscriptions;
+                if (current.size() >= maxConnectionsPerAssignee) {
+                    throw new TooManyStreamsException("Too many open todo streams for " + assigneeEmail + ", retry later");
+                }
+                current.add(subscription);
+                return current;
+            });
+        } catch (TooManyStreamsException e) {
+            connections.decrementAndGet();
+            throw e;
+        }
+        try {
+            subscription.start(snapshot.get());
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return subscription.emitter;
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        Set<Subscription> targets = new HashSet<>();
+        if (event.todo() != null && event.todo().assigneeEmail() != null) {
+            targets.addAll(byAssignee.getOrDefault(event.todo().assigneeEmail(), Set.of()));
+        }
+        if (event.type() == TodoChangedEvent.Type.REASSIGNED || event.type() == TodoChangedEvent.Type.DELETED) {
+            // The streams of the previous assignee still show the todo
+            byAssignee.values().forEach(subscriptions -> subscriptions.stream()
+                    .filter(subscription -> subscription.shows(event.todoId()))
+                    .forEach(targets::add));
+        }
+        targets.forEach(subscription -> subscription.offer(event));
+    }
+
+    private void unregister(Subscription subscription) {
+        byAssignee.computeIfPresent(subscription.assigneeEmail, (email, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+        connections.decrementAndGet();
+    }
+
+    /**
+     * Wire format of a todo in the stream. The version is sent because it isn't part of the TodoResponse body.
+     */
+    record Change(String id, Long version, TodoResponse todo) {
+
+        static Change of(TodoResponse todo) {
+            return new Change(todo.id(), todo.version(), todo);
+        }
+
+        static Change of(TodoChangedEvent event) {
+            return event.todo() == null ? new Change(event.todoId(), null, null) : of(event.todo());
+        }
+    }
+
+    private class Subscription implements Runnable {
+
+        private final String assigneeEmail;
+        private final SseEmitter emitter;
+        private final BlockingQueue<TodoChangedEvent> queue;
+        // Todos this client currently shows, to tell it when one is reassigned away or deleted
+        private final Set<String> shownIds = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile boolean overflowed;
+        private List<TodoResponse> snapshot;
+        private Thread sender;
+
+        Subscription(String assigneeEmail) {
+            this.assigneeEmail = assigneeEmail;
+            this.emitter = new SseEmitter(timeout.toMillis());
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        boolean shows(String todoId) {
+            return shownIds.contains(todoId);
+        }
+
+        void start(List<TodoResponse> todos) {
+            todos.forEach(todo -> shownIds.add(todo.id()));
+            snapshot = todos;
+            sender = senderThreads.newThread(this);
+            sender.start();
+        }
+
+        void offer(TodoChangedEvent event) {
+            if (event.todo() != null && assigneeEmail.equals(event.todo().assigneeEmail())) {
+                shownIds.add(event.todoId());
+            } else {
+                shownIds.remove(event.todoId());
+            }
+            if (overflowed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflowed = true;
+                queue.clear();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("snapshot")
+                        .data(snapshot.stream().map(Change::of).toList(), MediaType.APPLICATION_JSON));
+                snapshot = null;
+                while (!closed.get()) {
+                    if (overflowed) {
+                        slowConsumers.increment();
+                        emitter.complete();
+                        return;
+                    }
+                    TodoChangedEvent event = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        // Keeps proxies from timing the connection out and detects clients that went away
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .name(event.type().name().toLowerCase())
+                                .data(Change.of(event), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException e) {
+                // The client went away, the container completes the emitter
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                unregister(this);
+                queue.clear();
+                if (sender != null && sender != Thread.currentThread()) {
+                    sender.interrupt();
+                }
+            }
+        }
+    }
+}
@@ -1,63 +1,136 @@
 package ro.unibuc.prodeng.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import ro.unibuc.prodeng.request.ChangeNameRequest;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BatchItemStatus;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.UserResponse;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
 import ro.unibuc.prodeng.service.UserService;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 public class UserController {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+        PageResponse<UserResponse> users = userService.getAllUsers();
+        if (users.nextCursor() == null) {
+            return ResponseEntity.ok(users.items());
+        }
+        // Capped at one page; point to the rest instead of silently dropping it
+        String next = String.format("</api/users?limit=%d&cursor=%s>; rel=\"next\"", users.items().size(), users.nextCursor());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, next)
+                .body(users.items());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<UserResponse>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam int limit,
+            @RequestParam(required = false) Set<String> fields) {
+        PageResponse<UserResponse> page = userService.getUsersPage(cursor, limit, fields);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) Set<String> fields) {
+        Stream<UserResponse> users = userService.streamUsers(fields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.of(users, objectMapper));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable String id) throws EntityNotFoundException {
         UserResponse user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return ETags.ok(user, user.version());
     }
 
     @PostMapping
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request) {
         UserResponse user = userService.createUser(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(user);
+        return ETags.withStatus(HttpStatus.CREATED, user, user.version());
+    }
+
+    // The body is read and the results written while the batch is being created, one chunk at a time
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createUsers(HttpServletRequest request) throws IOException {
+        JsonItemReader<CreateUserRequest> requests = JsonItemReader.of(request.getInputStream(), CreateUserRequest.class, objectMapper);
+        StreamingResponseBody body = out -> {
+            userService.createUsers(requests, result -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (requests.error() != null) {
+                BatchItemResponse<UserResponse> malformed = BatchItemResponse.failed(requests.count(), BatchItemStatus.INVALID,
+                        "Malformed JSON: " + requests.error());
+                out.write(objectMapper.writeValueAsBytes(malformed));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ChangeNameRequest request) throws EntityNotFoundException {
-        UserResponse user = userService.changeName(id, request.name());
-        return ResponseEntity.ok(user);
+        UserResponse user = userService.changeName(id, request.name(), ETags.parseIfMatch(ifMatch));
+        return ETags.ok(user, user.version());
     }
 
     @PatchMapping("/{id}/name")
     public ResponseEntity<UserResponse> changeName(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ChangeNameRequest request) throws EntityNotFoundException {
-        UserResponse user = userService.changeName(id, request.name());
-        return ResponseEntity.ok(user);
+        UserResponse user = userService.changeName(id, request.name(), ETags.parseIfMatch(ifMatch));
+        return ETags.ok(user, user.version());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteUser(@PathVariable String id) throws EntityNotFoundException {
-        userService.deleteUser(id);
+    public ResponseEntity<Void> deleteUser(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws EntityNotFoundException {
+        userService.deleteUser(id, ETags.parseIfMatch(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -65,6 +138,6 @@ public class UserController {
     public ResponseEntity<UserResponse> getUserByEmail(@RequestParam String email)
             throws EntityNotFoundException {
         UserResponse user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(user);
+        return ETags.ok(user, user.version());
     }
 }
@@ -0,0 +1,63 @@
+package ro.unibuc.prodeng.controller.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.service.reactive.ReactiveTodoService;
+
+@RestController
+@RequestMapping("/api/todos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTodoController {
+
+    @Autowired
+    private ReactiveTodoService todoService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TodoResponse> getTodosByUserEmail(@RequestParam String assigneeEmail) {
+        return todoService.getTodosByUserEmail(assigneeEmail);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<TodoResponse> getTodoById(@PathVariable String id) {
+        return todoService.getTodoById(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TodoResponse> createTodo(@Valid @RequestBody CreateTodoRequest request) {
+        return todoService.createTodo(request);
+    }
+
+    @PatchMapping("/{id}/done")
+    public Mono<TodoResponse> setDone(@PathVariable String id, @RequestBody boolean done) {
+        return todoService.setDone(id, done);
+    }
+
+    @PatchMapping("/{id}/assignee")
+    public Mono<TodoResponse> assign(@PathVariable String id, @Valid @RequestBody AssignTodoRequest request) {
+        return todoService.assign(id, request);
+    }
+
+    @PatchMapping("/{id}/description")
+    public Mono<TodoResponse> edit(@PathVariable String id, @Valid @RequestBody EditTodoRequest request) {
+        return todoService.edit(id, request);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTodo(@PathVariable String id) {
+        return todoService.deleteTodo(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
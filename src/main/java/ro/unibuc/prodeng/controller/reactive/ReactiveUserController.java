@@ -0,0 +1,66 @@
+package ro.unibuc.prodeng.controller.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.request.ChangeNameRequest;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.reactive.ReactiveUserService;
+
+@RestController
+@RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponse> getAllUsers() {
+        return userService.getAllUsers();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserResponse> getUserById(@PathVariable String id) {
+        return userService.getUserById(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request) {
+        return userService.createUser(request);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<UserResponse> updateUser(
+            @PathVariable String id,
+            @Valid @RequestBody ChangeNameRequest request) {
+        return userService.changeName(id, request.name());
+    }
+
+    @PatchMapping("/{id}/name")
+    public Mono<UserResponse> changeName(
+            @PathVariable String id,
+            @Valid @RequestBody ChangeNameRequest request) {
+        return userService.changeName(id, request.name());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable String id) {
+        return userService.deleteUser(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @GetMapping("/by-email")
+    public Mono<UserResponse> getUserByEmail(@RequestParam String email) {
+        return userService.getUserByEmail(email);
+    }
+}
@@ -0,0 +1,22 @@
+package ro.unibuc.prodeng.event;
+
+import ro.unibuc.prodeng.response.TodoResponse;
+
+/**
+ * Published by TodoService after each todo mutation. {@code todo} is the todo as it is after the change,
+ * null when it was deleted.
+ */
+public record TodoChangedEvent(
+    Type type,
+    String todoId,
+    TodoResponse todo
+) {
+
+    public enum Type {
+        CREATED,
+        DONE,
+        EDITED,
+        REASSIGNED,
+        DELETED
+    }
+}
@@ -0,0 +1,10 @@
+package ro.unibuc.prodeng.event;
+
+import java.time.Instant;
+
+public record UserRenamedEvent(
+    String userId,
+    String name,
+    String email,
+    Instant renamedAt
+) {}
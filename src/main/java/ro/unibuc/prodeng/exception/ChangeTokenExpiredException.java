@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ChangeTokenExpiredException extends RuntimeException {
+
+    private static final String expiredTemplate = "Change token: %s is older than the deletion history, sync again without it";
+
+    public ChangeTokenExpiredException(String token) {
+        super(String.format(expiredTemplate, token));
+    }
+}
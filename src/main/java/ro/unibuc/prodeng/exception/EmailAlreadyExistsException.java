@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmailAlreadyExistsException extends RuntimeException {
+
+    private static final String alreadyExistsTemplate = "Email already exists: %s";
+
+    public EmailAlreadyExistsException(String email) {
+        super(String.format(alreadyExistsTemplate, email));
+    }
+}
@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    private static final String versionMismatchTemplate = "Entity: %s is no longer at version %d";
+
+    public PreconditionFailedException(String entity, long expectedVersion) {
+        super(String.format(versionMismatchTemplate, entity, expectedVersion));
+    }
+}
@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ReassignTargetMissingException extends RuntimeException {
+
+    private static final String missingTemplate = "Todos are reassigned to: %s, who does not exist; create that user first";
+
+    public ReassignTargetMissingException(String email) {
+        super(String.format(missingTemplate, email));
+    }
+}
@@ -0,0 +1,161 @@
+package ro.unibuc.prodeng.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import ro.unibuc.prodeng.metrics.MongoRoundTrips.Tally;
+
+/**
+ * Records how many Mongo round-trips each API request made and how long they took, by method and route,
+ * reports them to the client in a {@code Server-Timing} header and logs requests that exceed their
+ * {@link RoundTripBudgets budget}.
+ * The header is added when the body starts being written, so commands sent while a streamed (async)
+ * response is produced only show up in the metrics, and only those sent before the stream starts.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MongoRoundTripFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoRoundTripFilter.class);
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    @Autowired
+    private MongoRoundTrips mongoRoundTrips;
+
+    @Autowired
+    private RoundTripBudgets budgets;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        mongoRoundTrips.start();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            timedResponse.addServerTiming();
+            record(request, mongoRoundTrips.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, Tally tally) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        DistributionSummary.builder("prodeng.mongo.roundtrips")
+                .description("Mongo commands sent per API request")
+                .tag("method", method)
+                .tag("uri", route)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(meterRegistry)
+                .record(tally.commands());
+        Timer.builder("prodeng.mongo.request.time")
+                .description("Time spent in Mongo commands per API request")
+                .tag("method", method)
+                .tag("uri", route)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(tally.time());
+
+        int budget = budgets.budgetFor(method, route);
+        if (tally.commands() > budget) {
+            Counter.builder("prodeng.mongo.roundtrips.over.budget")
+                    .description("API requests that made more Mongo round-trips than their endpoint's budget")
+                    .tag("method", method)
+                    .tag("uri", route)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} made {} Mongo round-trips ({} ms), budget is {}",
+                    method, request.getRequestURI(), tally.commands(), tally.time().toMillis(), budget);
+        }
+    }
+
+    static String serverTiming(Tally tally) {
+        return String.format(Locale.ROOT, "mongo;desc=\"%d round-trips\";dur=%.3f",
+                tally.commands(), tally.time().toNanos() / 1_000_000.0);
+    }
+
+    /**
+     * Adds the Server-Timing header right before the response is committed, since headers added later are dropped.
+     */
+    private class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void addServerTiming() {
+            if (!added && !isCommitted()) {
+                added = true;
+                setHeader(SERVER_TIMING, serverTiming(mongoRoundTrips.current()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+}
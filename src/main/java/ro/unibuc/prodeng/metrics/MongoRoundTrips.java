@@ -0,0 +1,83 @@
+package ro.unibuc.prodeng.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Counts the Mongo commands sent by the current thread between {@link #start()} and {@link #stop()},
+ * and how long they took in total.
+ * The blocking driver notifies listeners on the calling thread, so this attributes commands to the request
+ * being served. Commands sent from threads that never called {@link #start()} are ignored.
+ */
+@Component
+public class MongoRoundTrips implements CommandListener {
+
+    private final ThreadLocal<Tally> tallies = new ThreadLocal<>();
+
+    public void start() {
+        tallies.set(new Tally());
+    }
+
+    /**
+     * @return what was sent since {@link #start()} on this thread, or an empty tally if nothing was started
+     */
+    public Tally current() {
+        Tally tally = tallies.get();
+        return tally == null ? new Tally() : tally;
+    }
+
+    /**
+     * @return what was sent since {@link #start()} on this thread
+     */
+    public Tally stop() {
+        Tally tally = current();
+        tallies.remove();
+        return tally;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        Tally tally = tallies.get();
+        if (tally != null) {
+            tally.commands++;
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        addTime(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        addTime(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void addTime(long nanos) {
+        Tally tally = tallies.get();
+        if (tally != null) {
+            tally.nanos += nanos;
+        }
+    }
+
+    public static final class Tally {
+
+        private int commands;
+        private long nanos;
+
+        public int commands() {
+            return commands;
+        }
+
+        public Duration time() {
+            return Duration.ofNanos(nanos);
+        }
+    }
+}
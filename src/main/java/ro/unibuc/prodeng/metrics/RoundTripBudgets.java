@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Maximum number of Mongo round-trips an endpoint is expected to make per request.
+ * Overrides are given as {@code METHOD route=budget} pairs separated by commas,
+ * e.g. {@code GET /api/todos/{id}=2,PATCH /api/todos/{id}/done=2}.
+ */
+@Component
+public class RoundTripBudgets {
+
+    @Value("${prodeng.mongo.roundtrip-budget.default:4}")
+    private int defaultBudget;
+
+    @Value("${prodeng.mongo.roundtrip-budget.overrides:}")
+    private String overrides;
+
+    private final Map<String, Integer> budgets = new HashMap<>();
+
+    @PostConstruct
+    void parse() {
+        for (String entry : overrides.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid round-trip budget, expected 'METHOD route=budget': " + entry);
+            }
+            budgets.put(entry.substring(0, separator).trim(), Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+    }
+
+    public int budgetFor(String method, String route) {
+        return budgets.getOrDefault(method + " " + route, defaultBudget);
+    }
+}
@@ -0,0 +1,79 @@
+package ro.unibuc.prodeng.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
+
+/**
+ * Times every public TodoService and UserService call, tagged by service, method and outcome,
+ * and counts the failed ones by exception type.
+ * Methods returning a Stream are timed until the stream is returned, not until it is consumed.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * ro.unibuc.prodeng.service.TodoService.*(..))"
+            + " || execution(public * ro.unibuc.prodeng.service.UserService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ok";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            Counter.builder("prodeng.service.failures")
+                    .description("Service calls that ended with an exception")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("prodeng.service.calls")
+                    .description("Duration of service calls")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof EntityNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof PreconditionFailedException
+                || e instanceof EmailAlreadyExistsException
+                || e instanceof ReassignTargetMissingException
+                || e instanceof OptimisticLockingFailureException
+                || e instanceof DuplicateKeyException) {
+            return "conflict";
+        }
+        if (e instanceof IllegalArgumentException || e instanceof ConstraintViolationException) {
+            return "invalid";
+        }
+        return "error";
+    }
+}
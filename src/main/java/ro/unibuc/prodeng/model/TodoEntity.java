@@ -1,12 +1,25 @@
 package ro.unibuc.prodeng.model;
 
+import java.time.Instant;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "todos")
+@CompoundIndex(name = "assignedUserId_id", def = "{'assignedUserId': 1, '_id': 1}")
+// Serves GET /api/todos/changes, which reads an assignee's todos changed since a point in time
+@CompoundIndex(name = "assignedUserId_updatedAt", def = "{'assignedUserId': 1, 'updatedAt': 1}")
 public record TodoEntity(
     @Id String id,
     String description,
     boolean done,
-    String assignedUserId
+    String assignedUserId,
+    // Optional copy of the assignee's name and email, kept in sync on rename
+    String assigneeName,
+    String assigneeEmail,
+    @Version Long version,
+    // Set on every write, missing on todos last written before it was introduced
+    Instant updatedAt
 ) {}
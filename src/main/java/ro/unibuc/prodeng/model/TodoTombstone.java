@@ -0,0 +1,32 @@
+package ro.unibuc.prodeng.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Records that a todo left an assignee's list, because it was deleted or reassigned to someone else,
+ * so that {@code GET /api/todos/changes} can tell clients to drop it. Expires after {@link #RETENTION}.
+ */
+@Document(collection = "todo_tombstones")
+@CompoundIndex(name = "assignedUserId_deletedAt", def = "{'assignedUserId': 1, 'deletedAt': 1}")
+public record TodoTombstone(
+    // todoId:assignedUserId, so that leaving the same list twice keeps a single tombstone
+    @Id String id,
+    String todoId,
+    String assignedUserId,
+    // Must match RETENTION
+    @Indexed(name = "deletedAt_ttl", expireAfter = "30d")
+    Instant deletedAt
+) {
+
+    public static final Duration RETENTION = Duration.ofDays(30);
+
+    public static TodoTombstone of(String todoId, String assignedUserId, Instant deletedAt) {
+        return new TodoTombstone(todoId + ":" + assignedUserId, todoId, assignedUserId, deletedAt);
+    }
+}
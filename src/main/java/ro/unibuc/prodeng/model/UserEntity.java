@@ -1,6 +1,10 @@
 package ro.unibuc.prodeng.model;
 
+import java.time.Instant;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
@@ -8,5 +12,9 @@ public record UserEntity(
     @Id
     String id,
     String name,
-    String email
+    @Indexed(name = "email_unique", unique = true)
+    String email,
+    @Version
+    Long version,
+    Instant updatedAt
 ) {}
@@ -1,13 +1,26 @@
 package ro.unibuc.prodeng.repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import ro.unibuc.prodeng.model.TodoEntity;
 
 @Repository
-public interface TodoRepository extends MongoRepository<TodoEntity, String> {
+public interface TodoRepository extends MongoRepository<TodoEntity, String>, TodoRepositoryCustom {
 
     List<TodoEntity> findByAssignedUserId(String assignedUserId);
+
+    List<TodoEntity> findByAssignedUserIdOrderByIdAsc(String assignedUserId, Limit limit);
+
+    List<TodoEntity> findByAssignedUserIdAndIdGreaterThanOrderByIdAsc(String assignedUserId, String id, Limit limit);
+
+    List<TodoEntity> findByAssignedUserIdAndUpdatedAtGreaterThanEqual(String assignedUserId, Instant updatedAt);
+
+    Stream<TodoEntity> streamByAssignedUserId(String assignedUserId);
+
+    long deleteByAssignedUserId(String assignedUserId);
 }
@@ -0,0 +1,103 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+public interface TodoRepositoryCustom {
+
+    /**
+     * Inserts all todos with a single unordered bulk write.
+     * Documents must carry pre-assigned ids.
+     *
+     * @return error messages of the rejected documents, keyed by their position in {@code todos}
+     */
+    Map<Integer, String> insertUnordered(List<TodoEntity> todos);
+
+    /**
+     * Reads the todos matching {@code criteria} together with their assignee's name and email
+     * in a single aggregation ({@code $match} + {@code $lookup} on users + {@code $project}).
+     * Todos whose assignee no longer exists are returned without assignee details.
+     */
+    List<TodoResponse> findResponses(Criteria criteria);
+
+    /**
+     * Applies {@code update} to a single todo with one atomic {@code findAndModify},
+     * touching only the fields the update sets, and increments its version and {@code updatedAt}.
+     * When {@code expectedVersion} is not null the todo is only updated if it is still at that version.
+     *
+     * @return the todo as it is after the update, or empty if no todo has this id and version
+     */
+    Optional<TodoEntity> updateById(String id, Long expectedVersion, Update update);
+
+    /**
+     * Same as {@link #updateById}, for callers that need the fields the update overwrote.
+     *
+     * @return the todo as it was before the update, or empty if no todo has this id and version
+     */
+    Optional<TodoEntity> updateByIdReturningPrevious(String id, Long expectedVersion, Update update);
+
+    Optional<TodoResponse> findResponseById(String id);
+
+    /**
+     * Deletes a single todo with one {@code findAndModify}, only if it is still at {@code expectedVersion} when that is not null.
+     *
+     * @return the deleted todo, or empty if no todo has this id and version
+     */
+    Optional<TodoEntity> removeById(String id, Long expectedVersion);
+
+    /**
+     * Applies {@code update} to all todos of a user with one {@code updateMany}, incrementing their versions.
+     *
+     * @return the number of todos that matched
+     */
+    long updateByAssignedUserId(String assignedUserId, Update update);
+
+    /**
+     * Sets the done flag of many todos with one unordered bulk write of {@code updateOne}s.
+     * A todo is only written, and its version incremented, when its flag actually changes.
+     *
+     * @return the number of todos that changed
+     */
+    long updateDone(Map<String, Boolean> doneById);
+
+    /**
+     * Rewrites the denormalized assignee name and email on all todos of a user with one {@code updateMany}.
+     *
+     * @return the number of todos that changed
+     */
+    long updateAssigneeSnapshot(String assignedUserId, String name, String email);
+
+    /**
+     * Rewrites every assignee snapshot that no longer matches its user, in one server-side aggregation ending in {@code $merge}.
+     * Todos of deleted users are left as they are.
+     */
+    void resyncAssigneeSnapshots();
+
+    /**
+     * Returns up to {@code limit} todos matching {@code criteria} ordered by id, starting after {@code afterId} (exclusive).
+     * Only the id, done flag and assignee id are read; the other fields are left unset.
+     */
+    List<TodoEntity> findTargets(Criteria criteria, String afterId, int limit);
+
+    /**
+     * Applies {@code update} to all todos matching {@code criteria} with one {@code updateMany},
+     * incrementing their versions.
+     *
+     * @return the number of todos that changed
+     */
+    long updateMatching(Criteria criteria, Update update);
+
+    /**
+     * Deletes all todos matching {@code criteria} with one {@code deleteMany}.
+     *
+     * @return the number of deleted todos
+     */
+    long removeMatching(Criteria criteria);
+}
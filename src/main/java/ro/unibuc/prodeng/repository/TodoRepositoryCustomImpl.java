@@ -0,0 +1,202 @@
+package ro.unibuc.prodeng.repository;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import ro.unibuc.prodeng.config.MaintenanceMongoTemplate;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+    private static final String ASSIGNEE = "assignee";
+    private static final String ASSIGNEE_OBJECT_ID = "assigneeObjectId";
+    private static final String VERSION = "version";
+    private static final String UPDATED_AT = "updatedAt";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // The resync $merge rewrites the whole collection and can outlast the request read timeout
+    @Autowired
+    private MaintenanceMongoTemplate maintenanceMongoTemplate;
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<TodoEntity> todos) {
+        if (todos.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class)
+                    .insert(todos)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+        }
+    }
+
+    @Override
+    public List<TodoResponse> findResponses(Criteria criteria) {
+        TypedAggregation<TodoEntity> aggregation = Aggregation.newAggregation(TodoEntity.class,
+                Aggregation.match(criteria),
+                // assignedUserId is stored as a string while users._id is an ObjectId
+                Aggregation.addFields()
+                        .addFieldWithValue(ASSIGNEE_OBJECT_ID, assigneeObjectId())
+                        .build(),
+                Aggregation.lookup("users", ASSIGNEE_OBJECT_ID, "_id", ASSIGNEE),
+                Aggregation.unwind(ASSIGNEE, true),
+                Aggregation.project("description", "done", VERSION)
+                        .and(ASSIGNEE + ".name").as("assigneeName")
+                        .and(ASSIGNEE + ".email").as("assigneeEmail")
+        );
+        return mongoTemplate.aggregate(aggregation, TodoResponse.class).getMappedResults();
+    }
+
+    @Override
+    public Optional<TodoResponse> findResponseById(String id) {
+        return findResponses(Criteria.where("id").is(id)).stream().findFirst();
+    }
+
+    @Override
+    public Optional<TodoEntity> updateById(String id, Long expectedVersion, Update update) {
+        return findAndModify(id, expectedVersion, update, true);
+    }
+
+    @Override
+    public Optional<TodoEntity> updateByIdReturningPrevious(String id, Long expectedVersion, Update update) {
+        return findAndModify(id, expectedVersion, update, false);
+    }
+
+    @Override
+    public Optional<TodoEntity> removeById(String id, Long expectedVersion) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(Query.query(byIdAndVersion(id, expectedVersion)), TodoEntity.class));
+    }
+
+    @Override
+    public long updateByAssignedUserId(String assignedUserId, Update update) {
+        Query query = Query.query(Criteria.where("assignedUserId").is(assignedUserId));
+        return mongoTemplate.updateMulti(query, touched(update), TodoEntity.class).getMatchedCount();
+    }
+
+    @Override
+    public long updateDone(Map<String, Boolean> doneById) {
+        if (doneById.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoEntity.class);
+        doneById.forEach((id, done) -> bulk.updateOne(
+                Query.query(Criteria.where("id").is(id).and("done").ne(done)),
+                touched(new Update().set("done", done))));
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public long updateAssigneeSnapshot(String assignedUserId, String name, String email) {
+        Query query = Query.query(Criteria.where("assignedUserId").is(assignedUserId));
+        Update update = new Update()
+                .set("assigneeName", name)
+                .set("assigneeEmail", email);
+        return mongoTemplate.updateMulti(query, touched(update), TodoEntity.class).getModifiedCount();
+    }
+
+    @Override
+    public void resyncAssigneeSnapshots() {
+        TypedAggregation<TodoEntity> aggregation = Aggregation.newAggregation(TodoEntity.class,
+                Aggregation.match(Criteria.where("assignedUserId").ne(null)),
+                Aggregation.addFields()
+                        .addFieldWithValue(ASSIGNEE_OBJECT_ID, assigneeObjectId())
+                        .build(),
+                Aggregation.lookup("users", ASSIGNEE_OBJECT_ID, "_id", ASSIGNEE),
+                Aggregation.unwind(ASSIGNEE),
+                Aggregation.match(BooleanOperators.Or.or(
+                        ComparisonOperators.valueOf("assigneeName").notEqualTo(ASSIGNEE + ".name"),
+                        ComparisonOperators.valueOf("assigneeEmail").notEqualTo(ASSIGNEE + ".email"))),
+                // Written like any other update, so delta sync clients pick up the new names
+                Aggregation.project()
+                        .and(ASSIGNEE + ".name").as("assigneeName")
+                        .and(ASSIGNEE + ".email").as("assigneeEmail")
+                        .and(ArithmeticOperators.valueOf(ConditionalOperators.ifNull(VERSION).then(0)).add(1)).as(VERSION)
+                        .and(LiteralOperators.valueOf(Date.from(Instant.now())).asLiteral()).as(UPDATED_AT),
+                Aggregation.merge()
+                        .intoCollection("todos")
+                        .on("_id")
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.mergeDocuments())
+                        .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.discardDocument())
+                        .build()
+        );
+        maintenanceMongoTemplate.aggregate(aggregation, TodoEntity.class);
+    }
+
+    @Override
+    public List<TodoEntity> findTargets(Criteria criteria, String afterId, int limit) {
+        Criteria page = afterId == null ? criteria : new Criteria().andOperator(criteria, Criteria.where("id").gt(afterId));
+        Query query = Query.query(page)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit);
+        query.fields().include("id", "done", "assignedUserId");
+        return mongoTemplate.find(query, TodoEntity.class);
+    }
+
+    @Override
+    public long updateMatching(Criteria criteria, Update update) {
+        return mongoTemplate.updateMulti(Query.query(criteria), touched(update), TodoEntity.class).getModifiedCount();
+    }
+
+    @Override
+    public long removeMatching(Criteria criteria) {
+        return mongoTemplate.remove(Query.query(criteria), TodoEntity.class).getDeletedCount();
+    }
+
+    private Optional<TodoEntity> findAndModify(String id, Long expectedVersion, Update update, boolean returnNew) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(byIdAndVersion(id, expectedVersion)),
+                touched(update), FindAndModifyOptions.options().returnNew(returnNew), TodoEntity.class));
+    }
+
+    // Every write bumps the version and updatedAt, the latter is what GET /api/todos/changes reads
+    private static Update touched(Update update) {
+        return update.inc(VERSION, 1).set(UPDATED_AT, Instant.now());
+    }
+
+    private static Criteria byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and(VERSION).is(expectedVersion);
+        }
+        return criteria;
+    }
+
+    // A legacy assignedUserId that is not a valid ObjectId joins nothing instead of failing the whole aggregation
+    private static ConvertOperators.Convert assigneeObjectId() {
+        return ConvertOperators.valueOf("assignedUserId").convertTo("objectId")
+                .onErrorReturn(null)
+                .onNullReturn(null);
+    }
+}
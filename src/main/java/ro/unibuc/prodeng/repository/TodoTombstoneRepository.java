@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import ro.unibuc.prodeng.model.TodoTombstone;
+
+@Repository
+public interface TodoTombstoneRepository extends MongoRepository<TodoTombstone, String>, TodoTombstoneRepositoryCustom {
+
+    List<TodoTombstone> findByAssignedUserIdAndDeletedAtGreaterThanEqual(String assignedUserId, Instant deletedAt);
+}
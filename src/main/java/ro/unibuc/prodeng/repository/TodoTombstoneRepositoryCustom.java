@@ -0,0 +1,13 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.List;
+
+import ro.unibuc.prodeng.model.TodoTombstone;
+
+public interface TodoTombstoneRepositoryCustom {
+
+    /**
+     * Writes all tombstones with a single unordered bulk write of upserts, replacing the ones already there.
+     */
+    void upsertAll(List<TodoTombstone> tombstones);
+}
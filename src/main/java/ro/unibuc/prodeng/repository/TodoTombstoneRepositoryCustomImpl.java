@@ -0,0 +1,35 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import ro.unibuc.prodeng.model.TodoTombstone;
+
+public class TodoTombstoneRepositoryCustomImpl implements TodoTombstoneRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void upsertAll(List<TodoTombstone> tombstones) {
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        // saveAll() would send one write per tombstone, since their ids are assigned up front
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, TodoTombstone.class);
+        for (TodoTombstone tombstone : tombstones) {
+            bulk.upsert(Query.query(Criteria.where("id").is(tombstone.id())), new Update()
+                    .set("todoId", tombstone.todoId())
+                    .set("assignedUserId", tombstone.assignedUserId())
+                    .set("deletedAt", tombstone.deletedAt()));
+        }
+        bulk.execute();
+    }
+}
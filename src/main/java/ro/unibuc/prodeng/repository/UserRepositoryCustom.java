@@ -0,0 +1,50 @@
+package ro.unibuc.prodeng.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import ro.unibuc.prodeng.model.UserEntity;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts all users with a single unordered bulk write.
+     * Documents must carry pre-assigned ids.
+     *
+     * @return write errors of the rejected documents, keyed by their position in {@code users}
+     */
+    Map<Integer, BulkWriteError> insertUnordered(List<UserEntity> users);
+
+    /**
+     * Returns up to {@code limit} users ordered by id, starting after {@code afterId} (exclusive).
+     * When {@code fields} is not empty only those fields are read; the others are left {@code null}.
+     */
+    List<UserEntity> findPage(String afterId, int limit, Collection<String> fields);
+
+    /**
+     * Streams all users from a server-side cursor. The stream must be closed by the caller.
+     */
+    Stream<UserEntity> streamAll(Collection<String> fields);
+
+    /**
+     * Applies {@code update} to a single user with one atomic {@code findAndModify}, increments its version and sets {@code updatedAt}.
+     * When {@code expectedVersion} is not null the user is only updated if it is still at that version.
+     *
+     * @return the user as it is after the update, or empty if no user has this id and version
+     */
+    Optional<UserEntity> updateById(String id, Long expectedVersion, Update update);
+
+    /**
+     * Deletes a single user with one {@code deleteOne}, only if it is still at {@code expectedVersion} when that is not null.
+     *
+     * @return the number of deleted users, 0 if no user has this id and version
+     */
+    long removeById(String id, Long expectedVersion);
+}
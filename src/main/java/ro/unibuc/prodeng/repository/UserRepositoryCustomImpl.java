@@ -0,0 +1,89 @@
+package ro.unibuc.prodeng.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.bulk.BulkWriteError;
+
+import ro.unibuc.prodeng.model.UserEntity;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<Integer, BulkWriteError> insertUnordered(List<UserEntity> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, UserEntity.class)
+                    .insert(users)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+        }
+    }
+
+    @Override
+    public List<UserEntity> findPage(String afterId, int limit, Collection<String> fields) {
+        Query query = projected(fields)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit);
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        return mongoTemplate.find(query, UserEntity.class);
+    }
+
+    @Override
+    public Stream<UserEntity> streamAll(Collection<String> fields) {
+        return mongoTemplate.stream(projected(fields), UserEntity.class);
+    }
+
+    @Override
+    public Optional<UserEntity> updateById(String id, Long expectedVersion, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(byIdAndVersion(id, expectedVersion)),
+                update.inc("version", 1).set("updatedAt", Instant.now()), FindAndModifyOptions.options().returnNew(true), UserEntity.class));
+    }
+
+    @Override
+    public long removeById(String id, Long expectedVersion) {
+        return mongoTemplate.remove(Query.query(byIdAndVersion(id, expectedVersion)), UserEntity.class).getDeletedCount();
+    }
+
+    private Query projected(Collection<String> fields) {
+        Query query = new Query();
+        if (!fields.isEmpty()) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return query;
+    }
+
+    private static Criteria byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        return criteria;
+    }
+}
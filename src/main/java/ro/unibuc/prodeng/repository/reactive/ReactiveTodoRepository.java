@@ -0,0 +1,16 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.TodoEntity;
+
+@Repository
+public interface ReactiveTodoRepository extends ReactiveMongoRepository<TodoEntity, String>, ReactiveTodoRepositoryCustom {
+
+    Flux<TodoEntity> findByAssignedUserId(String assignedUserId);
+
+    Mono<Long> deleteByAssignedUserId(String assignedUserId);
+}
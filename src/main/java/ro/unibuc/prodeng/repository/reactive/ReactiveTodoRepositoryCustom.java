@@ -0,0 +1,30 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.TodoEntity;
+
+public interface ReactiveTodoRepositoryCustom {
+
+    /**
+     * Applies {@code update} to a single todo with one atomic {@code findAndModify}, increments its version and sets {@code updatedAt}.
+     *
+     * @return the todo as it is after the update, or empty if no todo has this id
+     */
+    Mono<TodoEntity> updateById(String id, Update update);
+
+    /**
+     * Applies {@code update} to every todo of an assignee, incrementing each version and setting {@code updatedAt}.
+     *
+     * @return the number of todos matched
+     */
+    Mono<Long> updateByAssignedUserId(String assignedUserId, Update update);
+
+    /**
+     * Deletes a single todo with one atomic {@code findAndRemove}.
+     *
+     * @return the deleted todo, or empty if no todo has this id
+     */
+    Mono<TodoEntity> removeById(String id);
+}
@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.TodoEntity;
+
+public class ReactiveTodoRepositoryCustomImpl implements ReactiveTodoRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<TodoEntity> updateById(String id, Update update) {
+        // $inc treats a missing version as 0, so todos written before versioning get version 1
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)),
+                touched(update), FindAndModifyOptions.options().returnNew(true), TodoEntity.class);
+    }
+
+    @Override
+    public Mono<Long> updateByAssignedUserId(String assignedUserId, Update update) {
+        Query query = Query.query(Criteria.where("assignedUserId").is(assignedUserId));
+        return reactiveMongoTemplate.updateMulti(query, touched(update), TodoEntity.class)
+                .map(UpdateResult::getMatchedCount);
+    }
+
+    @Override
+    public Mono<TodoEntity> removeById(String id) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(id)), TodoEntity.class);
+    }
+
+    private Update touched(Update update) {
+        return update.inc("version", 1).set("updatedAt", Instant.now());
+    }
+}
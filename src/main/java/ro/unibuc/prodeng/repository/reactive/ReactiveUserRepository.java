@@ -0,0 +1,13 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.UserEntity;
+
+@Repository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<UserEntity, String>, ReactiveUserRepositoryCustom {
+
+    Mono<UserEntity> findByEmail(String email);
+}
@@ -0,0 +1,23 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.UserEntity;
+
+public interface ReactiveUserRepositoryCustom {
+
+    /**
+     * Applies {@code update} to a single user with one atomic {@code findAndModify}, increments its version and sets {@code updatedAt}.
+     *
+     * @return the user as it is after the update, or empty if no user has this id
+     */
+    Mono<UserEntity> updateById(String id, Update update);
+
+    /**
+     * Deletes a single user with one atomic {@code findAndRemove}.
+     *
+     * @return the deleted user, or empty if no user has this id
+     */
+    Mono<UserEntity> removeById(String id);
+}
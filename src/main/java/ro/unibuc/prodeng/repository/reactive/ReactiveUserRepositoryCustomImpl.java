@@ -0,0 +1,30 @@
+package ro.unibuc.prodeng.repository.reactive;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.UserEntity;
+
+public class ReactiveUserRepositoryCustomImpl implements ReactiveUserRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<UserEntity> updateById(String id, Update update) {
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)),
+                update.inc("version", 1).set("updatedAt", Instant.now()), FindAndModifyOptions.options().returnNew(true), UserEntity.class);
+    }
+
+    @Override
+    public Mono<UserEntity> removeById(String id) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(id)), UserEntity.class);
+    }
+}
@@ -0,0 +1,42 @@
+package ro.unibuc.prodeng.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkTodoRequest(
+    @NotNull(message = "Action is required")
+    Action action,
+
+    // Targets are given either as ids or as a filter, not both
+    List<String> ids,
+
+    @Valid
+    Filter filter,
+
+    // DONE: the flag to set
+    Boolean done,
+
+    // REASSIGN: who gets the todos
+    @Email(message = "Invalid email format")
+    String newAssigneeEmail
+) {
+
+    public enum Action {
+        DONE,
+        REASSIGN,
+        DELETE
+    }
+
+    public record Filter(
+        @Email(message = "Invalid email format")
+        @NotBlank(message = "Assignee email is required")
+        String assigneeEmail,
+
+        // Only todos with this done flag, all of the assignee's todos when null
+        Boolean done
+    ) {}
+}
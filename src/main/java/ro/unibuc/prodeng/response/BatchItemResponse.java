@@ -0,0 +1,17 @@
+package ro.unibuc.prodeng.response;
+
+public record BatchItemResponse<T>(
+    int index,
+    BatchItemStatus status,
+    T result,
+    String error
+) {
+
+    public static <T> BatchItemResponse<T> created(int index, T result) {
+        return new BatchItemResponse<>(index, BatchItemStatus.CREATED, result, null);
+    }
+
+    public static <T> BatchItemResponse<T> failed(int index, BatchItemStatus status, String error) {
+        return new BatchItemResponse<>(index, status, null, error);
+    }
+}
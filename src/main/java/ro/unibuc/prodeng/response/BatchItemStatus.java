@@ -0,0 +1,9 @@
+package ro.unibuc.prodeng.response;
+
+public enum BatchItemStatus {
+    CREATED,
+    INVALID,
+    NOT_FOUND,
+    DUPLICATE,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package ro.unibuc.prodeng.response;
+
+public record BulkTodoResponse(
+    // Todos the ids or filter selected
+    long matched,
+    // Todos the action changed or deleted
+    long modified
+) {}
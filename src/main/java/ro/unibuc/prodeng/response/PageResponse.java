@@ -0,0 +1,8 @@
+package ro.unibuc.prodeng.response;
+
+import java.util.List;
+
+public record PageResponse<T>(
+    List<T> items,
+    String nextCursor
+) {}
@@ -0,0 +1,14 @@
+package ro.unibuc.prodeng.response;
+
+import java.util.List;
+
+public record TodoChangesResponse(
+    // True when changed holds all of the assignee's todos and replaces the client's copy; deleted is then empty
+    boolean reset,
+    // Todos created or changed since the token, or all of the assignee's todos on a reset
+    List<TodoResponse> changed,
+    // Ids of todos that were deleted or reassigned to someone else
+    List<String> deleted,
+    // Pass as since on the next call
+    String nextToken
+) {}
@@ -1,9 +1,13 @@
 package ro.unibuc.prodeng.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public record TodoResponse(
     String id,
     String description,
     boolean done,
     String assigneeName,
-    String assigneeEmail
+    String assigneeEmail,
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore Long version
 ) {}
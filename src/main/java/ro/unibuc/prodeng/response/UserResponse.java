@@ -1,7 +1,12 @@
 package ro.unibuc.prodeng.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record UserResponse(
     String id,
     String name,
-    String email
+    String email,
+    @JsonIgnore Long version
 ) {}
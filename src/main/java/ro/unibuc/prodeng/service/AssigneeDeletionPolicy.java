@@ -0,0 +1,13 @@
+package ro.unibuc.prodeng.service;
+
+/**
+ * What happens to a user's todos when the user is deleted.
+ */
+public enum AssigneeDeletionPolicy {
+    /** Hand the todos over to the user configured in {@code prodeng.users.delete.reassign-to}. */
+    REASSIGN,
+    /** Delete the todos together with the user. */
+    DELETE,
+    /** Keep the todos without an assignee. */
+    ORPHAN
+}
@@ -0,0 +1,111 @@
+package ro.unibuc.prodeng.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ro.unibuc.prodeng.event.UserRenamedEvent;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+/**
+ * Propagates user renames to the assignee snapshot stored on their todos, off the request thread.
+ * Renames are applied one at a time, in the order they happened, so a slow update can never
+ * overwrite a newer name with an older one.
+ * Renames made while the feature was off are not propagated, so every snapshot is re-synced once at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "prodeng.todos.denormalize-assignee", havingValue = "true")
+public class AssigneeSnapshotUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(AssigneeSnapshotUpdater.class);
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "assignee-snapshot-updater"));
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private Counter updatedTodos;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("prodeng.todos.snapshot.pending", pending, AtomicInteger::get)
+                .description("Renames waiting to be propagated to the todos of the user")
+                .register(meterRegistry);
+        updatedTodos = Counter.builder("prodeng.todos.snapshot.updated")
+                .description("Todos whose assignee snapshot was rewritten")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resyncOnStartup() {
+        pending.incrementAndGet();
+        executor.execute(this::resync);
+    }
+
+    @EventListener
+    public void onUserRenamed(UserRenamedEvent event) {
+        pending.incrementAndGet();
+        executor.execute(() -> propagate(event));
+    }
+
+    private void propagate(UserRenamedEvent event) {
+        String outcome = "ok";
+        try {
+            long updated = todoRepository.updateAssigneeSnapshot(event.userId(), event.name(), event.email());
+            updatedTodos.increment(updated);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            log.error("Could not update the assignee snapshot of user {}", event.userId(), e);
+        } finally {
+            pending.decrementAndGet();
+            // Time from the rename until every todo shows the new name
+            Timer.builder("prodeng.todos.snapshot.lag")
+                    .description("Delay between a rename and its propagation to the todos of the user")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.between(event.renamedAt(), Instant.now()));
+        }
+    }
+
+    private void resync() {
+        try {
+            todoRepository.resyncAssigneeSnapshots();
+            log.info("Assignee snapshots re-synced with their users");
+        } catch (RuntimeException e) {
+            log.error("Could not re-sync the assignee snapshots, todos may show outdated names", e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("{} assignee snapshot updates were not applied before shutdown", pending.get());
+        }
+    }
+}
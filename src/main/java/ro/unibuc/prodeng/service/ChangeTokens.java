@@ -0,0 +1,33 @@
+package ro.unibuc.prodeng.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Encodes delta sync positions as opaque tokens. A token wraps the time a sync started at,
+ * so the next sync reads the documents whose {@code updatedAt} is not older than it.
+ */
+final class ChangeTokens {
+
+    private ChangeTokens() {
+    }
+
+    static String encode(Instant syncedAt) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(syncedAt.toEpochMilli()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Instant decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String millis = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return Instant.ofEpochMilli(Long.parseLong(millis));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included, fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid change token: " + token);
+    }
+}
@@ -0,0 +1,177 @@
+package ro.unibuc.prodeng.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+/**
+ * Write-behind buffer for todo done flags, enabled with {@code prodeng.todos.done.write-behind}.
+ * Only the latest flag of each todo is kept, and all buffered flags are written with one unordered bulk write
+ * every {@code flush-interval}, so a todo toggled many times between two flushes costs a single write.
+ * Reads overlay the buffered flags, and the remaining ones are written on graceful shutdown.
+ * A crash loses at most one flush interval of toggles.
+ */
+@Component
+public class DoneStateBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(DoneStateBuffer.class);
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${prodeng.todos.done.write-behind:false}")
+    private boolean enabled;
+
+    @Value("${prodeng.todos.done.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    @Value("${prodeng.todos.done.max-pending:10000}")
+    private int maxPending;
+
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    private Counter buffered;
+
+    private Counter written;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("prodeng.todos.done.pending", pending, Map::size)
+                .description("Todos whose done flag is buffered and not yet written")
+                .register(meterRegistry);
+        buffered = Counter.builder("prodeng.todos.done.buffered")
+                .description("Done toggles accepted into the write-behind buffer")
+                .register(meterRegistry);
+        written = Counter.builder("prodeng.todos.done.written")
+                .description("Todos whose done flag was changed by a flush")
+                .register(meterRegistry);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "todo-done-flusher"));
+        flusher.scheduleWithFixedDelay(this::flushAll,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers the done flag of a todo instead of writing it.
+     *
+     * @return false when write-behind is disabled or the buffer is full, and the caller must write it itself
+     */
+    public boolean offer(String id, boolean done) {
+        if (!enabled || pending.size() >= maxPending && !pending.containsKey(id)) {
+            return false;
+        }
+        pending.put(id, done);
+        buffered.increment();
+        return true;
+    }
+
+    /**
+     * Shows the todo as it will be once its buffered flag is written.
+     * The version is predicted: a flush only writes, and increments the version, when the flag actually changes.
+     */
+    public TodoResponse overlay(TodoResponse todo) {
+        Boolean done = pending.isEmpty() ? null : pending.get(todo.id());
+        if (done == null || done == todo.done()) {
+            return todo;
+        }
+        return new TodoResponse(
+                todo.id(),
+                todo.description(),
+                done,
+                todo.assigneeName(),
+                todo.assigneeEmail(),
+                todo.version() == null ? null : todo.version() + 1
+        );
+    }
+
+    /**
+     * Writes the buffered flag of a single todo right away, so that a conditional write that follows sees its version.
+     */
+    public void flush(String id) {
+        Boolean done = pending.isEmpty() ? null : pending.get(id);
+        if (done != null) {
+            write(Map.of(id, done));
+        }
+    }
+
+    /**
+     * Forgets the buffered flag of a todo that no longer exists, or whose flag was overwritten in bulk.
+     */
+    public void discard(String id) {
+        pending.remove(id);
+    }
+
+    void flushAll() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            write(new HashMap<>(pending));
+        } catch (RuntimeException e) {
+            // The flags stay buffered and are retried by the next flush
+            log.error("Could not flush {} buffered done flags", pending.size(), e);
+        }
+    }
+
+    private void write(Map<String, Boolean> doneById) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ok";
+        try {
+            written.increment(todoRepository.updateDone(doneById));
+            // A toggle that arrived during the write is kept for the next flush
+            doneById.forEach(pending::remove);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("prodeng.todos.done.flush")
+                    .description("Duration of the bulk writes of buffered done flags")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flushAll();
+        if (!pending.isEmpty()) {
+            log.warn("{} buffered done flags were not written before shutdown", pending.size());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ro.unibuc.prodeng.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Encodes keyset pagination positions as opaque tokens. A cursor wraps the id of the last
+ * document returned, so the next page resumes with an indexed {@code _id > cursor} range scan.
+ */
+final class PageCursors {
+
+    private PageCursors() {
+    }
+
+    static String encode(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (ObjectId.isValid(id)) {
+                return id;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the common error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    static int checkLimit(int limit, int maxLimit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+}
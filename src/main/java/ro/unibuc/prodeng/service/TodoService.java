@@ -1,18 +1,46 @@
 package ro.unibuc.prodeng.service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import ro.unibuc.prodeng.event.TodoChangedEvent;
 import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.TodoTombstone;
 import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.TodoTombstoneRepository;
 import ro.unibuc.prodeng.model.UserEntity;
 import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.BulkTodoRequest;
 import ro.unibuc.prodeng.request.CreateTodoRequest;
 import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BatchItemStatus;
+import ro.unibuc.prodeng.response.BulkTodoResponse;
+import ro.unibuc.prodeng.response.PageResponse;
+import ro.unibuc.prodeng.response.TodoChangesResponse;
 import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.exception.ChangeTokenExpiredException;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
 
 @Service
 public class TodoService {
@@ -20,9 +48,36 @@ public class TodoService {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private TodoTombstoneRepository tombstoneRepository;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private DoneStateBuffer doneBuffer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${prodeng.todos.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${prodeng.todos.bulk.chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${prodeng.pagination.max-limit:1000}")
+    private int maxPageSize;
+
+    @Value("${prodeng.todos.denormalize-assignee:false}")
+    private boolean denormalizeAssignee;
+
+    @Value("${prodeng.todos.changes.overlap:5s}")
+    private Duration changesOverlap;
+
     public List<TodoResponse> getTodosByUserEmail(String email) throws EntityNotFoundException {
         UserEntity user = userService.getUserEntityByEmail(email);
         List<TodoEntity> todos = todoRepository.findByAssignedUserId(user.id());
@@ -31,54 +86,326 @@ public class TodoService {
                 .toList();
     }
 
+    public PageResponse<TodoResponse> getTodosPageByUserEmail(String email, String cursor, int limit) throws EntityNotFoundException {
+        PageCursors.checkLimit(limit, maxPageSize);
+        String afterId = PageCursors.decode(cursor);
+        UserEntity user = userService.getUserEntityByEmail(email);
+        // Fetch one extra document to know whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<TodoEntity> todos = afterId == null
+                ? todoRepository.findByAssignedUserIdOrderByIdAsc(user.id(), fetch)
+                : todoRepository.findByAssignedUserIdAndIdGreaterThanOrderByIdAsc(user.id(), afterId, fetch);
+        List<TodoEntity> page = todos.size() > limit ? todos.subList(0, limit) : todos;
+        String nextCursor = todos.size() > limit ? PageCursors.encode(page.get(limit - 1).id()) : null;
+        return new PageResponse<>(
+                page.stream().map(todo -> toResponse(todo, user)).toList(),
+                nextCursor
+        );
+    }
+
+    public Stream<TodoResponse> streamTodosByUserEmail(String email) throws EntityNotFoundException {
+        UserEntity user = userService.getUserEntityByEmail(email);
+        return todoRepository.streamByAssignedUserId(user.id())
+                .map(todo -> toResponse(todo, user));
+    }
+
+    public TodoChangesResponse getTodoChangesByUserEmail(String email, String since) throws EntityNotFoundException {
+        Instant syncedAt = ChangeTokens.decode(since);
+        // Taken before reading, so a write landing during the reads is returned again next time rather than missed
+        Instant now = Instant.now();
+        if (syncedAt != null && syncedAt.isBefore(now.minus(TodoTombstone.RETENTION))) {
+            throw new ChangeTokenExpiredException(since);
+        }
+        UserEntity user = userService.getUserEntityByEmail(email);
+        String nextToken = ChangeTokens.encode(now);
+        // updatedAt comes from each replica's clock and is set before the write commits, hence the overlap
+        Instant from = syncedAt == null ? null : syncedAt.minus(changesOverlap);
+        // A renamed assignee changes every todo's response; tombstones are not read, so the client must drop what it has
+        if (from == null || user.updatedAt() == null || !user.updatedAt().isBefore(from)) {
+            List<TodoResponse> all = todoRepository.findByAssignedUserId(user.id()).stream()
+                    .map(todo -> toResponse(todo, user))
+                    .toList();
+            return new TodoChangesResponse(true, all, List.of(), nextToken);
+        }
+        List<TodoResponse> changed = todoRepository.findByAssignedUserIdAndUpdatedAtGreaterThanEqual(user.id(), from).stream()
+                .map(todo -> toResponse(todo, user))
+                .toList();
+        Set<String> changedIds = changed.stream().map(TodoResponse::id).collect(Collectors.toSet());
+        // A todo that left and came back is listed as changed only
+        List<String> deleted = tombstoneRepository.findByAssignedUserIdAndDeletedAtGreaterThanEqual(user.id(), from).stream()
+                .map(TodoTombstone::todoId)
+                .filter(id -> !changedIds.contains(id))
+                .toList();
+        return new TodoChangesResponse(false, changed, deleted, nextToken);
+    }
+
     public TodoResponse getTodoById(String id) throws EntityNotFoundException {
-        TodoEntity todo = todoRepository.findById(id)
+        if (denormalizeAssignee) {
+            return withAssignee(getEntityById(id));
+        }
+        // Todo and assignee are joined server-side, in a single round-trip
+        return todoRepository.findResponseById(id)
+                .map(doneBuffer::overlay)
                 .orElseThrow(() -> new EntityNotFoundException(id));
-        UserEntity assignee = userService.getUserEntityById(todo.assignedUserId());
-        return toResponse(todo, assignee);
     }
 
     public TodoResponse createTodo(CreateTodoRequest request) throws EntityNotFoundException {
         UserEntity assignee = userService.getUserEntityByEmail(request.assigneeEmail());
-        TodoEntity todo = new TodoEntity(
+        TodoEntity todo = newTodo(
                 null, // ID will be generated by the repository
                 request.description(),
                 false,
-                assignee.id()
+                assignee
         );
         TodoEntity saved = todoRepository.save(todo);
-        return toResponse(saved, assignee);
+        return changed(TodoChangedEvent.Type.CREATED, toResponse(saved, assignee));
     }
 
-    public TodoResponse setDone(String id, boolean done) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
-        TodoEntity updated = new TodoEntity(id, existing.description(), done, existing.assignedUserId());
-        TodoEntity saved = todoRepository.save(updated);
-        UserEntity assignee = userService.getUserEntityById(saved.assignedUserId());
-        return toResponse(saved, assignee);
+    public List<BatchItemResponse<TodoResponse>> createTodos(List<CreateTodoRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size exceeds the limit of " + maxBatchSize);
+        }
+        List<BatchItemResponse<TodoResponse>> results = new ArrayList<>(requests.size());
+        Set<String> emails = requests.stream()
+                .filter(request -> request != null && request.assigneeEmail() != null)
+                .map(CreateTodoRequest::assigneeEmail)
+                .collect(Collectors.toSet());
+        Map<String, UserEntity> assignees = userService.getUserEntitiesByEmails(emails);
+
+        List<Integer> pendingIndexes = new ArrayList<>();
+        List<TodoEntity> pending = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTodoRequest request = requests.get(i);
+            String violations = validate(request);
+            if (violations != null) {
+                results.add(BatchItemResponse.failed(i, BatchItemStatus.INVALID, violations));
+                continue;
+            }
+            UserEntity assignee = assignees.get(request.assigneeEmail());
+            if (assignee == null) {
+                results.add(BatchItemResponse.failed(i, BatchItemStatus.NOT_FOUND,
+                        new EntityNotFoundException(request.assigneeEmail()).getMessage()));
+                continue;
+            }
+            pendingIndexes.add(i);
+            pending.add(newTodo(
+                    new ObjectId().toHexString(),
+                    request.description(),
+                    false,
+                    assignee
+            ));
+        }
+
+        Map<Integer, String> failures = todoRepository.insertUnordered(pending);
+        for (int i = 0; i < pending.size(); i++) {
+            int index = pendingIndexes.get(i);
+            String failure = failures.get(i);
+            if (failure != null) {
+                results.add(BatchItemResponse.failed(index, BatchItemStatus.FAILED, failure));
+            } else {
+                TodoEntity todo = pending.get(i);
+                TodoResponse created = toResponse(todo, assignees.get(requests.get(index).assigneeEmail()));
+                results.add(BatchItemResponse.created(index, changed(TodoChangedEvent.Type.CREATED, created)));
+            }
+        }
+        results.sort(Comparator.comparingInt(BatchItemResponse::index));
+        return results;
+    }
+
+    public TodoResponse setDone(String id, boolean done, Long expectedVersion) throws EntityNotFoundException {
+        // Write-behind trades the write for a read; conditional toggles (If-Match) are always written through
+        if (expectedVersion == null && doneBuffer.isEnabled()) {
+            TodoEntity todo = getEntityById(id);
+            if (doneBuffer.offer(id, done)) {
+                return changed(TodoChangedEvent.Type.DONE, withAssignee(todo));
+            }
+        }
+        TodoEntity saved = updateById(id, expectedVersion, new Update().set("done", done));
+        return changed(TodoChangedEvent.Type.DONE, withAssignee(saved));
     }
 
-    public TodoResponse assign(String id, AssignTodoRequest request) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
+    public TodoResponse assign(String id, AssignTodoRequest request, Long expectedVersion) throws EntityNotFoundException {
         UserEntity newAssignee = userService.getUserEntityByEmail(request.newAssigneeEmail());
-        TodoEntity updated = new TodoEntity(id, existing.description(), existing.done(), newAssignee.id());
-        TodoEntity saved = todoRepository.save(updated);
-        return toResponse(saved, newAssignee);
+        Update update = assigneeUpdate(newAssignee);
+        doneBuffer.flush(id);
+        // The previous assignee is only known from the document before the update
+        TodoEntity previous = todoRepository.updateByIdReturningPrevious(id, expectedVersion, update)
+                .orElseThrow(() -> missingOrStale(id, expectedVersion));
+        if (previous.assignedUserId() != null && !previous.assignedUserId().equals(newAssignee.id())) {
+            tombstoneRepository.save(TodoTombstone.of(id, previous.assignedUserId(), Instant.now()));
+        }
+        TodoResponse todo = new TodoResponse(
+                id,
+                previous.description(),
+                previous.done(),
+                newAssignee.name(),
+                newAssignee.email(),
+                // $inc starts from 0 on todos written before they were versioned
+                (previous.version() == null ? 0 : previous.version()) + 1
+        );
+        return changed(TodoChangedEvent.Type.REASSIGNED, doneBuffer.overlay(todo));
     }
 
-    public TodoResponse edit(String id, EditTodoRequest request) throws EntityNotFoundException {
-        TodoEntity existing = getEntityById(id);
-        TodoEntity updated = new TodoEntity(id, request.description(), existing.done(), existing.assignedUserId());
-        TodoEntity saved = todoRepository.save(updated);
-        UserEntity assignee = userService.getUserEntityById(saved.assignedUserId());
-        return toResponse(saved, assignee);
+    public TodoResponse edit(String id, EditTodoRequest request, Long expectedVersion) throws EntityNotFoundException {
+        TodoEntity saved = updateById(id, expectedVersion, new Update().set("description", request.description()));
+        return changed(TodoChangedEvent.Type.EDITED, withAssignee(saved));
     }
 
-    public void deleteTodo(String id) throws EntityNotFoundException {
-        if (!todoRepository.existsById(id)) {
-            throw new EntityNotFoundException(id);
+    public void deleteTodo(String id, Long expectedVersion) throws EntityNotFoundException {
+        doneBuffer.flush(id);
+        // A single findAndModify, which also returns whose list the todo leaves
+        TodoEntity deleted = todoRepository.removeById(id, expectedVersion)
+                .orElseThrow(() -> missingOrStale(id, expectedVersion));
+        if (deleted.assignedUserId() != null) {
+            tombstoneRepository.save(TodoTombstone.of(id, deleted.assignedUserId(), Instant.now()));
         }
-        todoRepository.deleteById(id);
+        eventPublisher.publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, id, null));
+    }
+
+    /**
+     * Applies one action to the todos selected by ids or by a filter, a chunk of {@code bulkChunkSize} todos at a time.
+     * Each chunk is read once and written with one {@code updateMany} or {@code deleteMany}, so a large job
+     * runs as many short writes rather than one long one.
+     */
+    public BulkTodoResponse bulkUpdate(BulkTodoRequest request) throws EntityNotFoundException {
+        if (request.action() == BulkTodoRequest.Action.DONE && request.done() == null) {
+            throw new IllegalArgumentException("done is required to mark todos");
+        }
+        if (request.action() == BulkTodoRequest.Action.REASSIGN && request.newAssigneeEmail() == null) {
+            throw new IllegalArgumentException("newAssigneeEmail is required to reassign todos");
+        }
+        Criteria target = bulkTarget(request);
+        UserEntity newAssignee = request.action() == BulkTodoRequest.Action.REASSIGN
+                ? userService.getUserEntityByEmail(request.newAssigneeEmail())
+                : null;
+        long matched = 0;
+        long modified = 0;
+        String afterId = null;
+        List<TodoEntity> chunk;
+        do {
+            chunk = todoRepository.findTargets(target, afterId, bulkChunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.getLast().id();
+            matched += chunk.size();
+            modified += switch (request.action()) {
+                case DONE -> markDone(target, chunk, request.done());
+                case REASSIGN -> reassign(target, chunk, newAssignee);
+                case DELETE -> delete(target, chunk);
+            };
+        } while (chunk.size() == bulkChunkSize);
+        return new BulkTodoResponse(matched, modified);
+    }
+
+    private Criteria bulkTarget(BulkTodoRequest request) throws EntityNotFoundException {
+        boolean byIds = request.ids() != null && !request.ids().isEmpty();
+        if (byIds == (request.filter() != null)) {
+            throw new IllegalArgumentException("Exactly one of ids and filter is required");
+        }
+        if (byIds) {
+            if (request.ids().size() > maxBatchSize) {
+                throw new IllegalArgumentException("Batch size exceeds the limit of " + maxBatchSize);
+            }
+            return Criteria.where("id").in(request.ids());
+        }
+        UserEntity assignee = userService.getUserEntityByEmail(request.filter().assigneeEmail());
+        Criteria criteria = Criteria.where("assignedUserId").is(assignee.id());
+        if (request.filter().done() != null) {
+            criteria.and("done").is(request.filter().done());
+        }
+        return criteria;
+    }
+
+    // The target is matched again on write, so a todo that stopped matching since the chunk was read is left alone
+    private long markDone(Criteria target, List<TodoEntity> chunk, boolean done) {
+        List<String> ids = chunk.stream().map(TodoEntity::id).toList();
+        // The bulk flag wins over toggles still waiting in the write-behind buffer
+        ids.forEach(doneBuffer::discard);
+        long modified = todoRepository.updateMatching(
+                new Criteria().andOperator(target, Criteria.where("id").in(ids), Criteria.where("done").ne(done)),
+                new Update().set("done", done));
+        publishChanged(TodoChangedEvent.Type.DONE, chunk.stream()
+                .filter(todo -> todo.done() != done)
+                .map(TodoEntity::id)
+                .toList());
+        return modified;
+    }
+
+    private long reassign(Criteria target, List<TodoEntity> chunk, UserEntity newAssignee) {
+        List<TodoEntity> moving = chunk.stream()
+                .filter(todo -> !newAssignee.id().equals(todo.assignedUserId()))
+                .toList();
+        List<String> ids = moving.stream().map(TodoEntity::id).toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Update update = assigneeUpdate(newAssignee);
+        long modified = todoRepository.updateMatching(new Criteria().andOperator(target, Criteria.where("id").in(ids)), update);
+        tombstoneRepository.upsertAll(tombstones(moving));
+        publishChanged(TodoChangedEvent.Type.REASSIGNED, ids);
+        return modified;
+    }
+
+    private long delete(Criteria target, List<TodoEntity> chunk) {
+        List<String> ids = chunk.stream().map(TodoEntity::id).toList();
+        ids.forEach(doneBuffer::discard);
+        long deleted = todoRepository.removeMatching(new Criteria().andOperator(target, Criteria.where("id").in(ids)));
+        tombstoneRepository.upsertAll(tombstones(chunk));
+        ids.forEach(id -> eventPublisher.publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, id, null)));
+        return deleted;
+    }
+
+    private List<TodoTombstone> tombstones(List<TodoEntity> todos) {
+        Instant now = Instant.now();
+        return todos.stream()
+                .filter(todo -> todo.assignedUserId() != null)
+                .map(todo -> TodoTombstone.of(todo.id(), todo.assignedUserId(), now))
+                .toList();
+    }
+
+    // Stream clients get the todos as written, read back with their assignees in one aggregation
+    private void publishChanged(TodoChangedEvent.Type type, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        todoRepository.findResponses(Criteria.where("id").in(ids))
+                .forEach(todo -> changed(type, todo));
+    }
+
+    private TodoResponse changed(TodoChangedEvent.Type type, TodoResponse todo) {
+        eventPublisher.publishEvent(new TodoChangedEvent(type, todo.id(), todo));
+        return todo;
+    }
+
+    private String validate(CreateTodoRequest request) {
+        if (request == null) {
+            return "Request body is required";
+        }
+        Set<ConstraintViolation<CreateTodoRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // One atomic findAndModify that only sets the changed fields, so concurrent PATCHes don't overwrite each other
+    private TodoEntity updateById(String id, Long expectedVersion, Update update) throws EntityNotFoundException {
+        // A buffered toggle is written first, so that the If-Match version the client saw is the stored one
+        doneBuffer.flush(id);
+        return todoRepository.updateById(id, expectedVersion, update)
+                .orElseThrow(() -> missingOrStale(id, expectedVersion));
+    }
+
+    // Nothing matched: either the todo is gone or it moved past the If-Match version
+    private RuntimeException missingOrStale(String id, Long expectedVersion) {
+        if (expectedVersion != null && todoRepository.existsById(id)) {
+            return new PreconditionFailedException(id, expectedVersion);
+        }
+        return new EntityNotFoundException(id);
     }
 
     private TodoEntity getEntityById(String id) throws EntityNotFoundException {
@@ -86,13 +413,52 @@ public class TodoService {
                 .orElseThrow(() -> new EntityNotFoundException(id));
     }
 
+    private TodoEntity newTodo(String id, String description, boolean done, UserEntity assignee) {
+        return new TodoEntity(
+                id,
+                description,
+                done,
+                assignee.id(),
+                denormalizeAssignee ? assignee.name() : null,
+                denormalizeAssignee ? assignee.email() : null,
+                // save() sets the initial version itself, the bulk insert of pre-assigned ids writes it as given
+                id == null ? null : 0L,
+                Instant.now()
+        );
+    }
+
+    // With the feature off the old snapshot is cleared, rather than left naming the previous assignee
+    private Update assigneeUpdate(UserEntity assignee) {
+        Update update = new Update().set("assignedUserId", assignee.id());
+        if (denormalizeAssignee) {
+            return update.set("assigneeName", assignee.name()).set("assigneeEmail", assignee.email());
+        }
+        return update.unset("assigneeName").unset("assigneeEmail");
+    }
+
+    private TodoResponse withAssignee(TodoEntity todo) throws EntityNotFoundException {
+        // The snapshot spares the user lookup, and orphaned todos (assignee deleted) have nobody to look up
+        if (todo.assignedUserId() == null || denormalizeAssignee && todo.assigneeName() != null) {
+            return doneBuffer.overlay(new TodoResponse(
+                    todo.id(),
+                    todo.description(),
+                    todo.done(),
+                    todo.assigneeName(),
+                    todo.assigneeEmail(),
+                    todo.version()
+            ));
+        }
+        return toResponse(todo, userService.getUserEntityById(todo.assignedUserId()));
+    }
+
     private TodoResponse toResponse(TodoEntity todo, UserEntity assignee) {
-        return new TodoResponse(
+        return doneBuffer.overlay(new TodoResponse(
                 todo.id(),
                 todo.description(),
                 todo.done(),
                 assignee.name(),
-                assignee.email()
-        );
+                assignee.email(),
+                todo.version()
+        ));
     }
 }
@@ -1,26 +1,106 @@
 package ro.unibuc.prodeng.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.event.UserRenamedEvent;
 import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
 import ro.unibuc.prodeng.repository.UserRepository;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BatchItemStatus;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
 
 @Service
 public class UserService {
 
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "name", "email");
+
     @Autowired
     private UserRepository userRepository;
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::toResponse)
-                .toList();
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${prodeng.users.batch.max-size:100000}")
+    private int maxBatchSize;
+
+    @Value("${prodeng.users.batch.chunk-size:1000}")
+    private int batchChunkSize;
+
+    @Value("${prodeng.pagination.max-limit:1000}")
+    private int maxPageSize;
+
+    @Value("${prodeng.users.delete.cascade:ORPHAN}")
+    private AssigneeDeletionPolicy deletionPolicy;
+
+    @Value("${prodeng.users.delete.reassign-to:frodo@theshire.me}")
+    private String reassignToEmail;
+
+    @Value("${prodeng.todos.denormalize-assignee:false}")
+    private boolean denormalizeAssignee;
+
+    // The unparameterized list is the first keyset page at the largest page size, never the whole collection
+    public PageResponse<UserResponse> getAllUsers() {
+        return getUsersPage(null, maxPageSize, null);
+    }
+
+    public PageResponse<UserResponse> getUsersPage(String cursor, int limit, Set<String> fields) {
+        PageCursors.checkLimit(limit, maxPageSize);
+        String afterId = PageCursors.decode(cursor);
+        // Fetch one extra document to know whether another page follows
+        List<UserEntity> users = userRepository.findPage(afterId, limit + 1, checkFields(fields));
+        List<UserEntity> page = users.size() > limit ? users.subList(0, limit) : users;
+        String nextCursor = users.size() > limit ? PageCursors.encode(page.get(limit - 1).id()) : null;
+        return new PageResponse<>(
+                page.stream().map(this::toResponse).toList(),
+                nextCursor
+        );
+    }
+
+    public Stream<UserResponse> streamUsers(Set<String> fields) {
+        return userRepository.streamAll(checkFields(fields))
+                .map(this::toResponse);
     }
 
     public UserResponse getUserById(String id) throws EntityNotFoundException {
@@ -30,36 +110,87 @@ public class UserService {
     }
 
     public UserEntity getUserEntityById(String id) throws EntityNotFoundException {
-        return userRepository.findById(id)
+        return userCache.getById(id, userRepository::findById)
                 .orElseThrow(() -> new EntityNotFoundException(id));
     }
 
     public UserResponse createUser(CreateUserRequest request) {
-        if (userRepository.findByEmail(request.email()).isPresent()) {
-            throw new IllegalArgumentException("Email already exists: " + request.email());
-        }
         UserEntity user = new UserEntity(
                 null, // ID will be generated by the repository
                 request.name(),
-                request.email()
+                request.email(),
+                null, // Set to 0 by the repository on insert
+                Instant.now()
         );
-        UserEntity saved = userRepository.save(user);
+        UserEntity saved;
+        try {
+            // The unique index on email rejects duplicates, no need to look the email up first
+            saved = userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            throw new EmailAlreadyExistsException(request.email());
+        }
+        userCache.put(saved);
         return toResponse(saved);
     }
 
-    public UserResponse changeName(String id, String newName) throws EntityNotFoundException {
-        UserEntity existing = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(id));
-        UserEntity updated = new UserEntity(existing.id(), newName, existing.email());
-        UserEntity saved = userRepository.save(updated);
+    /**
+     * Creates the users read from {@code requests} chunk by chunk, reporting each row to {@code results} as soon as
+     * its chunk is written, so that neither the requests nor the results of a whole batch are held in memory.
+     * Each chunk costs one {@code $in} lookup of its emails and one unordered bulk insert.
+     */
+    public void createUsers(Iterator<CreateUserRequest> requests, Consumer<BatchItemResponse<UserResponse>> results) {
+        // Emails accepted by earlier chunks, to reject repeats within the batch without asking the database
+        Set<String> seen = new HashSet<>();
+        List<CreateUserRequest> chunk = new ArrayList<>(batchChunkSize);
+        int first = 0;
+        boolean overLimit = false;
+        while (requests.hasNext()) {
+            if (first + chunk.size() == maxBatchSize) {
+                overLimit = true;
+                break;
+            }
+            chunk.add(requests.next());
+            if (chunk.size() == batchChunkSize) {
+                createChunk(first, chunk, seen, results);
+                first += chunk.size();
+                chunk.clear();
+            }
+        }
+        createChunk(first, chunk, seen, results);
+        if (overLimit) {
+            results.accept(BatchItemResponse.failed(maxBatchSize, BatchItemStatus.INVALID,
+                    "Batch size exceeds the limit of " + maxBatchSize));
+        }
+    }
+
+    public UserResponse changeName(String id, String newName, Long expectedVersion) throws EntityNotFoundException {
+        UserEntity saved = userRepository.updateById(id, expectedVersion, new Update().set("name", newName))
+                .orElseThrow(() -> missingOrStale(id, expectedVersion));
+        userCache.put(saved);
+        eventPublisher.publishEvent(new UserRenamedEvent(saved.id(), saved.name(), saved.email(), Instant.now()));
         return toResponse(saved);
     }
 
-    public void deleteUser(String id) throws EntityNotFoundException {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException(id);
+    public void deleteUser(String id, Long expectedVersion) throws EntityNotFoundException {
+        UserEntity newAssignee = deletionPolicy == AssigneeDeletionPolicy.REASSIGN ? reassignTarget(id) : null;
+        // A single deleteOne, its count tells a missing user apart
+        if (userRepository.removeById(id, expectedVersion) == 0) {
+            throw missingOrStale(id, expectedVersion);
+        }
+        userCache.invalidate(id);
+        // The user's todos follow in one bulk write
+        switch (deletionPolicy) {
+            case REASSIGN -> {
+                Update update = new Update().set("assignedUserId", newAssignee.id());
+                if (denormalizeAssignee) {
+                    update.set("assigneeName", newAssignee.name()).set("assigneeEmail", newAssignee.email());
+                }
+                todoRepository.updateByAssignedUserId(id, update);
+            }
+            case DELETE -> todoRepository.deleteByAssignedUserId(id);
+            case ORPHAN -> todoRepository.updateByAssignedUserId(id,
+                    new Update().unset("assignedUserId").unset("assigneeName").unset("assigneeEmail"));
         }
-        userRepository.deleteById(id);
     }
 
     public UserResponse getUserByEmail(String email) throws EntityNotFoundException {
@@ -69,15 +200,126 @@ public class UserService {
     }
 
     public UserEntity getUserEntityByEmail(String email) throws EntityNotFoundException {
-        return userRepository.findByEmail(email)
+        return userCache.getByEmail(email, userRepository::findByEmail)
                 .orElseThrow(() -> new EntityNotFoundException(email));
     }
 
+    public Map<String, UserEntity> getUserEntitiesByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        List<UserEntity> users = userRepository.findByEmailIn(emails);
+        // Each put is constant time, so filling the cache stays linear in the batch
+        users.forEach(userCache::put);
+        // Startup fails unless the unique email index is built, so emails match at most one user;
+        // the merge only keeps the lookup from throwing if that index is dropped while running
+        return users.stream()
+                .collect(Collectors.toMap(UserEntity::email, Function.identity(), (first, second) -> first));
+    }
+
+    private void createChunk(int first, List<CreateUserRequest> chunk, Set<String> seen,
+                             Consumer<BatchItemResponse<UserResponse>> results) {
+        List<BatchItemResponse<UserResponse>> chunkResults = new ArrayList<>(chunk.size());
+        List<Integer> pendingIndexes = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CreateUserRequest request = chunk.get(i);
+            String violations = validate(request);
+            if (violations != null) {
+                chunkResults.add(BatchItemResponse.failed(first + i, BatchItemStatus.INVALID, violations));
+            } else if (!seen.add(request.email())) {
+                chunkResults.add(BatchItemResponse.failed(first + i, BatchItemStatus.DUPLICATE,
+                        "Email repeated in the batch: " + request.email()));
+            } else {
+                chunkResults.add(null);
+                pendingIndexes.add(i);
+            }
+        }
+
+        List<String> emails = pendingIndexes.stream()
+                .map(i -> chunk.get(i).email())
+                .toList();
+        Set<String> existing = getUserEntitiesByEmails(emails).keySet();
+        List<Integer> insertIndexes = new ArrayList<>();
+        List<UserEntity> pending = new ArrayList<>();
+        for (int i : pendingIndexes) {
+            CreateUserRequest request = chunk.get(i);
+            if (existing.contains(request.email())) {
+                chunkResults.set(i, BatchItemResponse.failed(first + i, BatchItemStatus.DUPLICATE,
+                        "Email already exists: " + request.email()));
+                continue;
+            }
+            insertIndexes.add(i);
+            // The bulk insert of pre-assigned ids writes the version as given
+            pending.add(new UserEntity(new ObjectId().toHexString(), request.name(), request.email(), 0L, Instant.now()));
+        }
+
+        // The unique index still rejects emails created concurrently since the lookup
+        Map<Integer, BulkWriteError> failures = userRepository.insertUnordered(pending);
+        for (int i = 0; i < pending.size(); i++) {
+            int index = insertIndexes.get(i);
+            BulkWriteError failure = failures.get(i);
+            if (failure == null) {
+                chunkResults.set(index, BatchItemResponse.created(first + index, toResponse(pending.get(i))));
+            } else if (ErrorCategory.fromErrorCode(failure.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                chunkResults.set(index, BatchItemResponse.failed(first + index, BatchItemStatus.DUPLICATE,
+                        "Email already exists: " + pending.get(i).email()));
+            } else {
+                chunkResults.set(index, BatchItemResponse.failed(first + index, BatchItemStatus.FAILED, failure.getMessage()));
+            }
+        }
+        chunkResults.forEach(results);
+    }
+
+    private String validate(CreateUserRequest request) {
+        if (request == null) {
+            return "Request body is required";
+        }
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private Set<String> checkFields(Set<String> fields) {
+        if (fields == null) {
+            return Set.of();
+        }
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return fields;
+    }
+
+    // Resolved before the delete, so a misconfigured target fails the request without deleting anything
+    private UserEntity reassignTarget(String deletedId) {
+        UserEntity newAssignee = userCache.getByEmail(reassignToEmail, userRepository::findByEmail)
+                .orElseThrow(() -> new ReassignTargetMissingException(reassignToEmail));
+        if (newAssignee.id().equals(deletedId)) {
+            throw new IllegalArgumentException("Cannot delete the user todos are reassigned to: " + reassignToEmail);
+        }
+        return newAssignee;
+    }
+
+    // A write that matched nothing either hit a missing user or a stale If-Match version
+    private RuntimeException missingOrStale(String id, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.existsById(id)) {
+            return new PreconditionFailedException(id, expectedVersion);
+        }
+        return new EntityNotFoundException(id);
+    }
+
     private UserResponse toResponse(UserEntity user) {
         return new UserResponse(
                 user.id(),
                 user.name(),
-                user.email()
+                user.email(),
+                user.version()
         );
     }
 }
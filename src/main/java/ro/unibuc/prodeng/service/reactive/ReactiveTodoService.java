@@ -0,0 +1,136 @@
+package ro.unibuc.prodeng.service.reactive;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.reactive.ReactiveTodoRepository;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTodoService {
+
+    @Autowired
+    private ReactiveTodoRepository todoRepository;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Value("${prodeng.todos.denormalize-assignee:false}")
+    private boolean denormalizeAssignee;
+
+    public Flux<TodoResponse> getTodosByUserEmail(String email) {
+        return userService.getUserEntityByEmail(email)
+                .flatMapMany(user -> todoRepository.findByAssignedUserId(user.id())
+                        .map(todo -> toResponse(todo, user)));
+    }
+
+    public Mono<TodoResponse> getTodoById(String id) {
+        return getEntityById(id)
+                .flatMap(this::withAssignee);
+    }
+
+    public Mono<TodoResponse> createTodo(CreateTodoRequest request) {
+        return userService.getUserEntityByEmail(request.assigneeEmail())
+                .flatMap(assignee -> todoRepository.save(newTodo(
+                                null, // ID will be generated by the repository
+                                request.description(),
+                                false,
+                                assignee
+                        ))
+                        .map(saved -> toResponse(saved, assignee)));
+    }
+
+    public Mono<TodoResponse> setDone(String id, boolean done) {
+        return updateById(id, new Update().set("done", done))
+                .flatMap(this::withAssignee);
+    }
+
+    public Mono<TodoResponse> assign(String id, AssignTodoRequest request) {
+        return userService.getUserEntityByEmail(request.newAssigneeEmail())
+                .flatMap(newAssignee -> updateById(id, assigneeUpdate(newAssignee))
+                        .map(saved -> toResponse(saved, newAssignee)));
+    }
+
+    public Mono<TodoResponse> edit(String id, EditTodoRequest request) {
+        return updateById(id, new Update().set("description", request.description()))
+                .flatMap(this::withAssignee);
+    }
+
+    public Mono<Void> deleteTodo(String id) {
+        return todoRepository.removeById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                .then();
+    }
+
+    private Mono<TodoEntity> getEntityById(String id) {
+        return todoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)));
+    }
+
+    private Mono<TodoEntity> updateById(String id, Update update) {
+        return todoRepository.updateById(id, update)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)));
+    }
+
+    private Update assigneeUpdate(UserEntity assignee) {
+        Update update = new Update().set("assignedUserId", assignee.id());
+        if (denormalizeAssignee) {
+            return update.set("assigneeName", assignee.name()).set("assigneeEmail", assignee.email());
+        }
+        return update.unset("assigneeName").unset("assigneeEmail");
+    }
+
+    private TodoEntity newTodo(String id, String description, boolean done, UserEntity assignee) {
+        return new TodoEntity(
+                id,
+                description,
+                done,
+                assignee.id(),
+                denormalizeAssignee ? assignee.name() : null,
+                denormalizeAssignee ? assignee.email() : null,
+                null,
+                Instant.now()
+        );
+    }
+
+    private Mono<TodoResponse> withAssignee(TodoEntity todo) {
+        // The snapshot spares the user lookup, and orphaned todos (assignee deleted) have nobody to look up
+        if (todo.assignedUserId() == null || denormalizeAssignee && todo.assigneeName() != null) {
+            return Mono.just(new TodoResponse(
+                    todo.id(),
+                    todo.description(),
+                    todo.done(),
+                    todo.assigneeName(),
+                    todo.assigneeEmail(),
+                    todo.version()
+            ));
+        }
+        return userService.getUserEntityById(todo.assignedUserId())
+                .map(assignee -> toResponse(todo, assignee));
+    }
+
+    private TodoResponse toResponse(TodoEntity todo, UserEntity assignee) {
+        return new TodoResponse(
+                todo.id(),
+                todo.description(),
+                todo.done(),
+                assignee.name(),
+                assignee.email(),
+                todo.version()
+        );
+    }
+}
@@ -0,0 +1,139 @@
+package ro.unibuc.prodeng.service.reactive;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.prodeng.event.UserRenamedEvent;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.reactive.ReactiveTodoRepository;
+import ro.unibuc.prodeng.repository.reactive.ReactiveUserRepository;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
+import ro.unibuc.prodeng.service.AssigneeDeletionPolicy;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveTodoRepository todoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${prodeng.users.delete.cascade:ORPHAN}")
+    private AssigneeDeletionPolicy deletionPolicy;
+
+    @Value("${prodeng.users.delete.reassign-to:frodo@theshire.me}")
+    private String reassignToEmail;
+
+    @Value("${prodeng.todos.denormalize-assignee:false}")
+    private boolean denormalizeAssignee;
+
+    public Flux<UserResponse> getAllUsers() {
+        return userRepository.findAll()
+                .map(this::toResponse);
+    }
+
+    public Mono<UserResponse> getUserById(String id) {
+        return getUserEntityById(id)
+                .map(this::toResponse);
+    }
+
+    public Mono<UserEntity> getUserEntityById(String id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)));
+    }
+
+    public Mono<UserResponse> createUser(CreateUserRequest request) {
+        UserEntity user = new UserEntity(
+                null, // ID will be generated by the repository
+                request.name(),
+                request.email(),
+                null,
+                Instant.now()
+        );
+        return userRepository.save(user)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new EmailAlreadyExistsException(request.email()))
+                .map(this::toResponse);
+    }
+
+    public Mono<UserResponse> changeName(String id, String newName) {
+        return userRepository.updateById(id, new Update().set("name", newName))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                .doOnNext(saved -> eventPublisher.publishEvent(
+                        new UserRenamedEvent(saved.id(), saved.name(), saved.email(), Instant.now())))
+                .map(this::toResponse);
+    }
+
+    public Mono<Void> deleteUser(String id) {
+        // The reassign target is resolved first, so a missing one fails the request before anything is deleted
+        Mono<Optional<UserEntity>> newAssignee = deletionPolicy == AssigneeDeletionPolicy.REASSIGN
+                ? reassignTarget(id).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return newAssignee
+                .flatMap(target -> userRepository.removeById(id)
+                        .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                        .flatMap(deleted -> cascade(id, target.orElse(null))))
+                .then();
+    }
+
+    public Mono<UserResponse> getUserByEmail(String email) {
+        return getUserEntityByEmail(email)
+                .map(this::toResponse);
+    }
+
+    public Mono<UserEntity> getUserEntityByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(email)));
+    }
+
+    private Mono<Long> cascade(String deletedId, UserEntity newAssignee) {
+        return switch (deletionPolicy) {
+            case REASSIGN -> {
+                Update update = new Update().set("assignedUserId", newAssignee.id());
+                if (denormalizeAssignee) {
+                    update.set("assigneeName", newAssignee.name()).set("assigneeEmail", newAssignee.email());
+                }
+                yield todoRepository.updateByAssignedUserId(deletedId, update);
+            }
+            case DELETE -> todoRepository.deleteByAssignedUserId(deletedId);
+            case ORPHAN -> todoRepository.updateByAssignedUserId(deletedId,
+                    new Update().unset("assignedUserId").unset("assigneeName").unset("assigneeEmail"));
+        };
+    }
+
+    private Mono<UserEntity> reassignTarget(String deletedId) {
+        return userRepository.findByEmail(reassignToEmail)
+                .switchIfEmpty(Mono.error(() -> new ReassignTargetMissingException(reassignToEmail)))
+                .flatMap(newAssignee -> newAssignee.id().equals(deletedId)
+                        ? Mono.<UserEntity>error(new IllegalArgumentException("Cannot delete the user todos are reassigned to: " + reassignToEmail))
+                        : Mono.just(newAssignee));
+    }
+
+    private UserResponse toResponse(UserEntity user) {
+        return new UserResponse(
+                user.id(),
+                user.name(),
+                user.email(),
+                user.version()
+        );
+    }
+}
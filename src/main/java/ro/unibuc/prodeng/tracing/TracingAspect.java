@@ -0,0 +1,44 @@
+package ro.unibuc.prodeng.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Opens a child span for every public method of the servlet controllers and of TodoService and UserService,
+ * so that a request's trace shows where its time went between the HTTP server span and the Mongo command spans.
+ * Time spent encoding the response is the part of the server span after the controller span ends.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Autowired
+    private Tracer tracer;
+
+    @Around("execution(public * ro.unibuc.prodeng.controller.*Controller.*(..))"
+            + " || execution(public * ro.unibuc.prodeng.service.TodoService.*(..))"
+            + " || execution(public * ro.unibuc.prodeng.service.UserService.*(..))")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = joinPoint.getSignature().getDeclaringType();
+        String method = joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan()
+                .name(type.getSimpleName() + "." + method)
+                .tag("code.namespace", type.getName())
+                .tag("code.function", method)
+                .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ro.unibuc.prodeng.tracing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Spans are exported over OTLP when {@code management.otlp.tracing.endpoint} is set (Spring Boot's exporter),
+ * and to a file when {@code prodeng.tracing.file} is set. Both can be active at once.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty("prodeng.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${prodeng.tracing.file}") Path file, ObjectMapper objectMapper)
+            throws IOException {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
@@ -0,0 +1,85 @@
+package ro.unibuc.prodeng.cache;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.service.UserService;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Change stream cache sync Integration Tests")
+@TestPropertySource(properties = "prodeng.change-streams.enabled=true")
+class ChangeStreamCacheSyncIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void cleanUp() {
+        userRepository.deleteAll();
+        userCache.invalidateAll();
+    }
+
+    @Test
+    void testUserChangedByAnotherInstance_cachedUser_isInvalidated() throws Exception {
+        // Arrange
+        UserEntity saved = userRepository.save(new UserEntity(null, "Alice", "alice@example.com", null, null));
+        userService.getUserEntityById(saved.id());
+        assertTrue(cached(saved.id()).isPresent());
+
+        // Act: a write that bypasses this instance, as another replica's would
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(saved.id())),
+                new Update().set("name", "Alice Renamed").inc("version", 1), UserEntity.class);
+
+        // Assert
+        awaitTrue(() -> cached(saved.id()).isEmpty());
+        assertEquals("Alice Renamed", userService.getUserEntityById(saved.id()).name());
+    }
+
+    @Test
+    void testUserDeletedByAnotherInstance_cachedUser_isInvalidated() throws Exception {
+        // Arrange
+        UserEntity saved = userRepository.save(new UserEntity(null, "Bob", "bob@example.com", null, null));
+        userService.getUserEntityByEmail("bob@example.com");
+
+        // Act
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(saved.id())), UserEntity.class);
+
+        // Assert
+        awaitTrue(() -> cached(saved.id()).isEmpty());
+    }
+
+    private Optional<UserEntity> cached(String id) {
+        return userCache.getById(id, key -> Optional.empty());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (!condition.getAsBoolean()) {
+            assertTrue(Instant.now().isBefore(deadline), "Condition not met within 10 seconds");
+            Thread.sleep(50);
+        }
+    }
+}
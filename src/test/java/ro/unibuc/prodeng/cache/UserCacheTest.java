@@ -0,0 +1,79 @@
+package ro.unibuc.prodeng.cache;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.model.UserEntity;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final UserCache userCache = new UserCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    private final UserEntity alice = new UserEntity("1", "Alice", "alice@example.com", 0L, null);
+
+    @Test
+    void testGetByEmail_cachedUser_isNotLoadedAgain() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        Function<String, Optional<UserEntity>> loader = email -> {
+            loads.incrementAndGet();
+            return Optional.of(alice);
+        };
+        userCache.getByEmail("alice@example.com", loader);
+
+        // Act
+        Optional<UserEntity> result = userCache.getByEmail("alice@example.com", loader);
+
+        // Assert
+        assertEquals(Optional.of(alice), result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testInvalidate_userCachedByEmail_dropsEmailLookup() {
+        // Arrange
+        userCache.getByEmail("alice@example.com", email -> Optional.of(alice));
+
+        // Act
+        userCache.invalidate("1");
+
+        // Assert
+        assertTrue(userCache.getByEmail("alice@example.com", email -> Optional.empty()).isEmpty());
+        assertTrue(userCache.getById("1", id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void testPut_changedEmail_oldEmailIsNoLongerServed() {
+        // Arrange
+        userCache.put(alice);
+        UserEntity moved = new UserEntity("1", "Alice", "alice@example.org", 1L, null);
+
+        // Act
+        userCache.put(moved);
+
+        // Assert
+        assertTrue(userCache.getByEmail("alice@example.com", email -> Optional.empty()).isEmpty());
+        assertEquals(Optional.of(moved), userCache.getByEmail("alice@example.org", email -> Optional.empty()));
+    }
+
+    @Test
+    void testGetByEmail_emailReusedAfterIdEvicted_loadsCurrentOwner() {
+        // Arrange
+        userCache.put(alice);
+        userCache.invalidate("1");
+        UserEntity bob = new UserEntity("2", "Bob", "alice@example.com", 0L, null);
+
+        // Act
+        Optional<UserEntity> result = userCache.getByEmail("alice@example.com", email -> Optional.of(bob));
+
+        // Assert
+        assertEquals(Optional.of(bob), result);
+    }
+}
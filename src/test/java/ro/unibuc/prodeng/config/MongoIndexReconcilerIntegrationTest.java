@@ -0,0 +1,49 @@
+package ro.unibuc.prodeng.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.model.UserEntity;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MongoIndexReconcilerIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MongoIndexReconciler reconciler;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    void restoreIndexes() {
+        mongoTemplate.remove(new Query(), UserEntity.class);
+        reconciler.reconcile();
+    }
+
+    @Test
+    void testReconcile_duplicateEmailsStored_failsInsteadOfRunningWithoutUniqueIndex() {
+        // Arrange
+        mongoTemplate.indexOps(UserEntity.class).dropIndex("email_unique");
+        mongoTemplate.getCollection("users").insertOne(new Document("name", "Alice").append("email", "alice@example.com"));
+        mongoTemplate.getCollection("users").insertOne(new Document("name", "Alice again").append("email", "alice@example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> reconciler.reconcile());
+    }
+
+    @Test
+    void testReconcile_indexMissingWithoutDuplicates_rebuildsIt() {
+        // Arrange
+        mongoTemplate.indexOps(UserEntity.class).dropIndex("email_unique");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> reconciler.reconcile());
+    }
+}
@@ -3,7 +3,9 @@ package ro.unibuc.prodeng.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.cache.UserCache;
 import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.TodoTombstoneRepository;
 import ro.unibuc.prodeng.repository.UserRepository;
 import ro.unibuc.prodeng.request.CreateTodoRequest;
 import ro.unibuc.prodeng.request.CreateUserRequest;
@@ -12,7 +14,12 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -25,16 +32,24 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private TodoTombstoneRepository tombstoneRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserCache userCache;
+
     @BeforeEach
     void cleanUp() {
         todoRepository.deleteAll();
+        tombstoneRepository.deleteAll();
         userRepository.deleteAll();
+        userCache.invalidateAll();
     }
 
     private void createUser(String name, String email) throws Exception {
@@ -96,6 +111,58 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void testGetTodosPage_moreTodosThanLimit_followsCursorToLastPage() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createTodo("Buy milk", "alice@example.com");
+        createTodo("Walk the dog", "alice@example.com");
+        createTodo("Clean house", "alice@example.com");
+
+        // Act & Assert
+        String firstPage = mockMvc.perform(get("/api/todos")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].description").value("Buy milk"))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/todos")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].description").value("Clean house"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testStreamTodos_ndjsonRequested_writesOneTodoPerLine() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createTodo("Buy milk", "alice@example.com");
+        createTodo("Walk the dog", "alice@example.com");
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/todos")
+                        .param("assigneeEmail", "alice@example.com")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.strip().split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals("Buy milk", objectMapper.readTree(lines[0]).get("description").asText());
+    }
+
     @Test
     void testSetDone_toggleDoneStatus_updatesStatusCorrectly() throws Exception {
         // Arrange
@@ -116,6 +183,58 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.done").value(false));
     }
 
+    @Test
+    void testGetTodoById_unchangedSinceETag_returnsNotModified() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String etag = mockMvc.perform(get("/api/todos/" + todoId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/" + todoId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/todos/" + todoId + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(get("/api/todos/" + todoId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.done").value(true));
+    }
+
+    @Test
+    void testSetDone_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        mockMvc.perform(patch("/api/todos/" + todoId + "/description")
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Buy oat milk\"}"))
+                .andExpect(status().isOk());
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/todos/" + todoId + "/done")
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/api/todos/" + todoId).header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/todos/" + todoId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Buy oat milk"))
+                .andExpect(jsonPath("$.done").value(false));
+    }
+
     @Test
     void testAssign_reassignToDifferentUser_updateAssigneeSuccessfully() throws Exception {
         // Arrange
@@ -161,6 +280,27 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void testDeleteUser_userWithTodos_orphansTheirTodos() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        String userId = userRepository.findByEmail("alice@example.com").orElseThrow().id();
+
+        // Act
+        mockMvc.perform(delete("/api/users/" + userId))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get("/api/todos/" + todoId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Buy milk"))
+                .andExpect(jsonPath("$.assigneeEmail").doesNotExist());
+
+        mockMvc.perform(delete("/api/users/" + userId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetTodoById_nonExistentTodo_returnsNotFound() throws Exception {
         // Arrange
@@ -197,4 +337,226 @@ class TodoControllerIntegrationTest extends IntegrationTestBase {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("Entity: " + nonExistentId + " was not found"));
     }
+
+    @Test
+    void testStreamTodoChanges_todoMarkedDone_sendsSnapshotThenDelta() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String todoId = createTodo("Buy milk", "alice@example.com");
+        MvcResult stream = mockMvc.perform(get("/api/todos/stream")
+                        .param("assigneeEmail", "alice@example.com")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, "event:snapshot");
+
+        // Act
+        mockMvc.perform(patch("/api/todos/" + todoId + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isOk());
+
+        // Assert
+        awaitContent(stream, "event:done");
+        String events = stream.getResponse().getContentAsString();
+        assertTrue(events.indexOf("event:snapshot") < events.indexOf("event:done"));
+        assertTrue(events.contains("\"done\":true"));
+    }
+
+    @Test
+    void testStreamTodoChanges_todoReassignedAwayThenDeleted_notifiesPreviousAssignee() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createUser("Bob", "bob@example.com");
+        String reassigned = createTodo("Buy milk", "alice@example.com");
+        String deleted = createTodo("Buy bread", "alice@example.com");
+        MvcResult stream = mockMvc.perform(get("/api/todos/stream")
+                        .param("assigneeEmail", "alice@example.com")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, "event:snapshot");
+
+        // Act
+        mockMvc.perform(patch("/api/todos/" + reassigned + "/assignee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"newAssigneeEmail\":\"bob@example.com\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/todos/" + deleted))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        awaitContent(stream, "event:deleted");
+        String events = stream.getResponse().getContentAsString();
+        assertTrue(events.contains("event:reassigned"));
+        assertTrue(events.contains("\"assigneeEmail\":\"bob@example.com\""));
+    }
+
+    @Test
+    void testStreamTodoChanges_unknownAssignee_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/todos/stream")
+                        .param("assigneeEmail", "nobody@example.com")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetTodoChanges_sinceToken_returnsEditedAndDeletedTodos() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createUser("Bob", "bob@example.com");
+        String edited = createTodo("Buy milk", "alice@example.com");
+        String deleted = createTodo("Buy bread", "alice@example.com");
+        String reassigned = createTodo("Buy eggs", "alice@example.com");
+        String fullSync = mockMvc.perform(get("/api/todos/changes").param("assigneeEmail", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reset").value(true))
+                .andExpect(jsonPath("$.changed.length()").value(3))
+                .andExpect(jsonPath("$.deleted.length()").value(0))
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(fullSync).get("nextToken").asText();
+
+        // Act
+        mockMvc.perform(patch("/api/todos/" + edited + "/description")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Buy oat milk\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/todos/" + deleted))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(patch("/api/todos/" + reassigned + "/assignee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"newAssigneeEmail\":\"bob@example.com\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/todos/changes")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reset").value(false))
+                .andExpect(jsonPath("$.changed[?(@.id == '" + edited + "')].description").value("Buy oat milk"))
+                .andExpect(jsonPath("$.changed[?(@.id == '" + reassigned + "')]").isEmpty())
+                .andExpect(jsonPath("$.deleted.length()").value(2))
+                .andExpect(jsonPath("$.nextToken").exists());
+    }
+
+    @Test
+    void testGetTodoChanges_assigneeRenamedSinceToken_resetsWithoutDeletedTodo() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        String kept = createTodo("Buy milk", "alice@example.com");
+        String deleted = createTodo("Buy bread", "alice@example.com");
+        String fullSync = mockMvc.perform(get("/api/todos/changes").param("assigneeEmail", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(fullSync).get("nextToken").asText();
+        String userId = userRepository.findByEmail("alice@example.com").orElseThrow().id();
+
+        // Act
+        mockMvc.perform(delete("/api/todos/" + deleted))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(put("/api/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alicia\"}"))
+                .andExpect(status().isOk());
+
+        // Assert: a reset lists no deletions, the client replaces its copy and so drops the deleted todo
+        mockMvc.perform(get("/api/todos/changes")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reset").value(true))
+                .andExpect(jsonPath("$.changed.length()").value(1))
+                .andExpect(jsonPath("$.changed[0].id").value(kept))
+                .andExpect(jsonPath("$.changed[0].assigneeName").value("Alicia"))
+                .andExpect(jsonPath("$.changed[?(@.id == '" + deleted + "')]").isEmpty());
+    }
+
+    @Test
+    void testGetTodoChanges_invalidToken_returnsBadRequest() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/changes")
+                        .param("assigneeEmail", "alice@example.com")
+                        .param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCreateTodos_mixedBatch_insertsValidTodosAndReportsTheRest() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+
+        // Act
+        mockMvc.perform(post("/api/todos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"description\":\"Buy milk\",\"assigneeEmail\":\"alice@example.com\"},"
+                                + "{\"description\":\"\",\"assigneeEmail\":\"alice@example.com\"},"
+                                + "{\"description\":\"Walk the dog\",\"assigneeEmail\":\"nobody@example.com\"},"
+                                + "{\"description\":\"Pay rent\",\"assigneeEmail\":\"alice@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].result.assigneeName").value("Alice"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].error").value("Description is required"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[3].status").value("CREATED"))
+                .andExpect(jsonPath("$[3].index").value(3));
+
+        // Assert
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testBulkUpdate_reassignOpenTodosOfAssignee_movesOnlyOpenTodos() throws Exception {
+        // Arrange
+        createUser("Alice", "alice@example.com");
+        createUser("Bob", "bob@example.com");
+        createTodo("Buy milk", "alice@example.com");
+        createTodo("Buy bread", "alice@example.com");
+        String finished = createTodo("Buy eggs", "alice@example.com");
+        mockMvc.perform(patch("/api/todos/" + finished + "/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("true"))
+                .andExpect(status().isOk());
+
+        // Act
+        mockMvc.perform(post("/api/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\":\"REASSIGN\",\"newAssigneeEmail\":\"bob@example.com\","
+                                + "\"filter\":{\"assigneeEmail\":\"alice@example.com\",\"done\":false}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(2))
+                .andExpect(jsonPath("$.modified").value(2));
+
+        // Assert
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "bob@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/todos").param("assigneeEmail", "alice@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(finished));
+    }
+
+    @Test
+    void testBulkUpdate_unknownAction_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\":\"ARCHIVE\",\"ids\":[\"t1\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (!result.getResponse().getContentAsString().contains(expected)) {
+            assertTrue(Instant.now().isBefore(deadline), "Stream did not send " + expected);
+            Thread.sleep(20);
+        }
+    }
 }
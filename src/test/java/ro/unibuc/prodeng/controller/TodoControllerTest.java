@@ -0,0 +1,60 @@
+package ro.unibuc.prodeng.controller;
+
+import ro.unibuc.prodeng.exception.GlobalExceptionHandler;
+import ro.unibuc.prodeng.exception.TooManyStreamsException;
+import ro.unibuc.prodeng.service.TodoService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+class TodoControllerTest {
+
+    @Mock
+    private TodoService todoService;
+
+    @Mock
+    private TodoEventStreams todoEventStreams;
+
+    @InjectMocks
+    private TodoController todoController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(todoController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testStreamTodoChanges_tooManyStreams_returnsServiceUnavailableWithRetryAfter() throws Exception {
+        // Arrange
+        when(todoEventStreams.subscribe(eq("alice@example.com"), any()))
+                .thenThrow(new TooManyStreamsException("Too many open todo streams, retry later"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/todos/stream")
+                        .param("assigneeEmail", "alice@example.com")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Too many open todo streams, retry later"));
+    }
+}
@@ -0,0 +1,163 @@
+package ro.unibuc.prodeng.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.event.TodoChangedEvent;
+import ro.unibuc.prodeng.exception.TooManyStreamsException;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+class TodoEventStreamsTest {
+
+    @InjectMocks
+    private TodoEventStreams todoEventStreams;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Holds every sender thread back until released, so the tests decide when queues are drained
+    private final CountDownLatch sendersReleased = new CountDownLatch(1);
+
+    private final TodoResponse milk = new TodoResponse("t1", "Buy milk", false, "Alice", "alice@example.com", 0L);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoEventStreams, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(todoEventStreams, "maxConnections", 3);
+        ReflectionTestUtils.setField(todoEventStreams, "maxConnectionsPerAssignee", 2);
+        ReflectionTestUtils.setField(todoEventStreams, "queueSize", 2);
+        ReflectionTestUtils.setField(todoEventStreams, "heartbeat", Duration.ofHours(1));
+        ReflectionTestUtils.setField(todoEventStreams, "timeout", Duration.ofHours(1));
+        ThreadFactory heldBack = sender -> Thread.ofVirtual().unstarted(() -> {
+            try {
+                sendersReleased.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            sender.run();
+        });
+        ReflectionTestUtils.setField(todoEventStreams, "senderThreads", heldBack);
+        todoEventStreams.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sendersReleased.countDown();
+    }
+
+    @Test
+    void testSubscribe_perAssigneeLimitReached_throwsTooManyStreamsException() {
+        // Arrange
+        todoEventStreams.subscribe("alice@example.com", List::of);
+        todoEventStreams.subscribe("alice@example.com", List::of);
+
+        // Act & Assert
+        assertThrows(TooManyStreamsException.class, () -> todoEventStreams.subscribe("alice@example.com", List::of));
+        todoEventStreams.subscribe("bob@example.com", List::of);
+        assertEquals(3.0, connections());
+    }
+
+    @Test
+    void testSubscribe_totalLimitReached_throwsTooManyStreamsException() {
+        // Arrange
+        todoEventStreams.subscribe("alice@example.com", List::of);
+        todoEventStreams.subscribe("bob@example.com", List::of);
+        todoEventStreams.subscribe("carol@example.com", List::of);
+
+        // Act & Assert
+        assertThrows(TooManyStreamsException.class, () -> todoEventStreams.subscribe("dave@example.com", List::of));
+        assertEquals(3.0, connections());
+    }
+
+    @Test
+    void testSubscribe_snapshotFails_releasesTheConnection() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> todoEventStreams.subscribe("alice@example.com", () -> {
+            throw new IllegalStateException("Mongo is down");
+        }));
+        assertEquals(0.0, connections());
+    }
+
+    @Test
+    void testOnTodoChanged_clientFallsBehindQueueSize_isDisconnected() throws InterruptedException {
+        // Arrange
+        todoEventStreams.subscribe("alice@example.com", () -> List.of(milk));
+        todoEventStreams.subscribe("alice@example.com", () -> List.of(milk));
+
+        // Act: one more change than the queue holds, while the senders are held back
+        for (int i = 0; i < 3; i++) {
+            todoEventStreams.onTodoChanged(new TodoChangedEvent(TodoChangedEvent.Type.EDITED, "t1", milk));
+        }
+        sendersReleased.countDown();
+
+        // Assert
+        awaitTrue(() -> connections() == 0.0);
+        assertEquals(2.0, meterRegistry.get("prodeng.todos.stream.slow.consumers").counter().count());
+        // The slots are free again for the reconnecting clients
+        todoEventStreams.subscribe("alice@example.com", List::of);
+        todoEventStreams.subscribe("alice@example.com", List::of);
+    }
+
+    @Test
+    void testOnTodoChanged_reassignedAway_isQueuedForThePreviousAssignee() throws InterruptedException {
+        // Arrange
+        todoEventStreams.subscribe("alice@example.com", () -> List.of(milk));
+        TodoResponse reassigned = new TodoResponse("t1", "Buy milk", false, "Bob", "bob@example.com", 1L);
+        TodoChangedEvent event = new TodoChangedEvent(TodoChangedEvent.Type.REASSIGNED, "t1", reassigned);
+
+        // Act: a queue of two overflows on the third event only if every one of them reached Alice's stream
+        todoEventStreams.onTodoChanged(event);
+        todoEventStreams.onTodoChanged(new TodoChangedEvent(TodoChangedEvent.Type.EDITED, "t2",
+                new TodoResponse("t2", "Pay rent", false, "Alice", "alice@example.com", 0L)));
+        todoEventStreams.onTodoChanged(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, "t2", null));
+        sendersReleased.countDown();
+
+        // Assert
+        awaitTrue(() -> connections() == 0.0);
+        assertEquals(1.0, meterRegistry.get("prodeng.todos.stream.slow.consumers").counter().count());
+    }
+
+    @Test
+    void testOnTodoChanged_todoNeverShown_isNotQueuedForOtherAssignees() throws InterruptedException {
+        // Arrange
+        todoEventStreams.subscribe("alice@example.com", () -> List.of(milk));
+
+        // Act: deletes of todos Alice's stream doesn't show must not fill her queue
+        for (int i = 0; i < 3; i++) {
+            todoEventStreams.onTodoChanged(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, "other" + i, null));
+        }
+        sendersReleased.countDown();
+
+        // Assert
+        Thread.sleep(100);
+        assertEquals(1.0, connections());
+        assertEquals(0.0, meterRegistry.get("prodeng.todos.stream.slow.consumers").counter().count());
+    }
+
+    private double connections() {
+        return meterRegistry.get("prodeng.todos.stream.connections").gauge().value();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (!condition.getAsBoolean()) {
+            assertTrue(Instant.now().isBefore(deadline), "Condition not met within 5 seconds");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package ro.unibuc.prodeng.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
 
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
 import ro.unibuc.prodeng.request.ChangeNameRequest;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.UserResponse;
 import ro.unibuc.prodeng.service.UserService;
 
@@ -13,21 +18,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @ExtendWith(SpringExtension.class)
 class UserControllerTest {
@@ -42,8 +55,8 @@ class UserControllerTest {
 
     private ObjectMapper objectMapper = new ObjectMapper();
     
-    private UserResponse testUser1 = new UserResponse("1", "John Doe", "john@example.com");
-    private UserResponse testUser2 = new UserResponse("2", "Jane Smith", "jane@example.com");
+    private UserResponse testUser1 = new UserResponse("1", "John Doe", "john@example.com", 0L);
+    private UserResponse testUser2 = new UserResponse("2", "Jane Smith", "jane@example.com", 0L);
     private CreateUserRequest createUserRequest = new CreateUserRequest("John Doe", "john@example.com");
     private ChangeNameRequest changeNameRequest = new ChangeNameRequest("John Updated");
     
@@ -56,12 +69,13 @@ class UserControllerTest {
     void testGetAllUsers_withMultipleUsers_returnsListOfUsers() throws Exception {
         // Arrange
         List<UserResponse> users = Arrays.asList(testUser1, testUser2);
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getAllUsers()).thenReturn(new PageResponse<>(users, null));
         
         // Act & Assert
         mockMvc.perform(get("/api/users")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id", is("1")))
                 .andExpect(jsonPath("$[0].name", is("John Doe")))
@@ -76,7 +90,7 @@ class UserControllerTest {
     @Test
     void testGetAllUsers_withNoUsers_returnsEmptyList() throws Exception {
         // Arrange
-        when(userService.getAllUsers()).thenReturn(Arrays.asList());
+        when(userService.getAllUsers()).thenReturn(new PageResponse<>(Arrays.asList(), null));
         
         // Act & Assert
         mockMvc.perform(get("/api/users")
@@ -86,7 +100,41 @@ class UserControllerTest {
         
         verify(userService, times(1)).getAllUsers();
     }
+
+    @Test
+    void testGetAllUsers_moreUsersThanOnePage_linksToNextPage() throws Exception {
+        // Arrange
+        when(userService.getAllUsers()).thenReturn(new PageResponse<>(Arrays.asList(testUser1, testUser2), "next-cursor"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK, "</api/users?limit=2&cursor=next-cursor>; rel=\"next\""))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
     
+    @Test
+    void testGetUsersPage_limitAndFieldsRequested_returnsProjectedPage() throws Exception {
+        // Arrange
+        PageResponse<UserResponse> page = new PageResponse<>(
+                List.of(new UserResponse("1", null, "john@example.com", null)), "next-cursor");
+        when(userService.getUsersPage(null, 1, Set.of("id", "email"))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users")
+                .param("limit", "1")
+                .param("fields", "id,email")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].email", is("john@example.com")))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")));
+
+        verify(userService, times(1)).getUsersPage(null, 1, Set.of("id", "email"));
+    }
+
     @Test
     void testGetUserById_existingUserRequested_returnsUser() throws Exception {
         // Arrange
@@ -135,30 +183,64 @@ class UserControllerTest {
         verify(userService, times(1)).createUser(any(CreateUserRequest.class));
     }
     
+    @Test
+    void testGetUserById_cborAccepted_returnsCbor() throws Exception {
+        // Arrange
+        when(userService.getUserById("1")).thenReturn(testUser1);
+
+        // Act
+        byte[] body = mockMvc.perform(get("/api/users/{id}", "1")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        UserResponse user = new CBORMapper().readValue(body, UserResponse.class);
+        assertEquals("John Doe", user.name());
+        assertEquals("john@example.com", user.email());
+    }
+
+    @Test
+    void testCreateUser_cborRequestBody_createsUser() throws Exception {
+        // Arrange
+        when(userService.createUser(createUserRequest)).thenReturn(testUser1);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(new CBORMapper().writeValueAsBytes(createUserRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email", is("john@example.com")));
+    }
+
     @Test
     void testUpdateUser_existingUserRequested_updatesAndReturnsUser() throws Exception {
         // Arrange
         String userId = "1";
-        UserResponse updatedUser = new UserResponse("1", "John Updated", "john@example.com");
-        when(userService.changeName(eq(userId), eq("John Updated"))).thenReturn(updatedUser);
+        UserResponse updatedUser = new UserResponse("1", "John Updated", "john@example.com", 1L);
+        when(userService.changeName(eq(userId), eq("John Updated"), isNull())).thenReturn(updatedUser);
         
         // Act & Assert
         mockMvc.perform(put("/api/users/{id}", userId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(changeNameRequest)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
                 .andExpect(jsonPath("$.id", is("1")))
                 .andExpect(jsonPath("$.name", is("John Updated")))
-                .andExpect(jsonPath("$.email", is("john@example.com")));
+                .andExpect(jsonPath("$.email", is("john@example.com")))
+                .andExpect(jsonPath("$.version").doesNotExist());
         
-        verify(userService, times(1)).changeName(userId, "John Updated");
+        verify(userService, times(1)).changeName(userId, "John Updated", null);
     }
     
     @Test
     void testUpdateUser_nonExistingUserRequested_returnsNotFound() throws Exception {
         // Arrange
         String userId = "999";
-        when(userService.changeName(eq(userId), anyString()))
+        when(userService.changeName(eq(userId), anyString(), isNull()))
                 .thenThrow(new EntityNotFoundException("User"));
         
         // Act & Assert
@@ -167,6 +249,77 @@ class UserControllerTest {
                 .content(objectMapper.writeValueAsString(changeNameRequest)))
                 .andExpect(status().isNotFound());
         
-        verify(userService, times(1)).changeName(eq(userId), anyString());
+        verify(userService, times(1)).changeName(eq(userId), anyString(), isNull());
+    }
+
+    @Test
+    void testGetUserById_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        // Arrange
+        when(userService.getUserById("1")).thenReturn(testUser1);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/{id}", "1")
+                .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testUpdateUser_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        // Arrange
+        when(userService.changeName("1", "John Updated", 3L))
+                .thenThrow(new PreconditionFailedException("1", 3L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/users/{id}", "1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changeNameRequest)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testDeleteUser_reassignTargetMissing_returnsConflict() throws Exception {
+        // Arrange
+        doThrow(new ReassignTargetMissingException("frodo@theshire.me")).when(userService).deleteUser("1", null);
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/users/{id}", "1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testCreateUsers_ndjsonBodyWithMalformedLine_streamsResultsThenReportsMalformedRow() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(userController, "objectMapper", objectMapper);
+        doAnswer(invocation -> {
+            Iterator<CreateUserRequest> requests = invocation.getArgument(0);
+            Consumer<BatchItemResponse<UserResponse>> results = invocation.getArgument(1);
+            for (int i = 0; requests.hasNext(); i++) {
+                CreateUserRequest request = requests.next();
+                results.accept(BatchItemResponse.created(i, new UserResponse(String.valueOf(i), request.name(), request.email(), 0L)));
+            }
+            return null;
+        }).when(userService).createUsers(any(), any());
+        String body = objectMapper.writeValueAsString(createUserRequest) + "\n"
+                + objectMapper.writeValueAsString(new CreateUserRequest("Jane Smith", "jane@example.com")) + "\n"
+                + "{\"name\": \n";
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/api/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("jane@example.com", objectMapper.readTree(lines[1]).at("/result/email").asText());
+        assertEquals(2, objectMapper.readTree(lines[2]).get("index").asInt());
+        assertEquals("INVALID", objectMapper.readTree(lines[2]).get("status").asText());
     }
 }
@@ -0,0 +1,162 @@
+package ro.unibuc.prodeng.controller.reactive;
+
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.GlobalExceptionHandler;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.service.reactive.ReactiveTodoService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ReactiveTodoControllerTest {
+
+    @Mock
+    private ReactiveTodoService todoService;
+
+    @InjectMocks
+    private ReactiveTodoController todoController;
+
+    private WebTestClient webTestClient;
+
+    private TodoResponse milk = new TodoResponse("t1", "Buy milk", false, "Alice", "alice@example.com", 0L);
+    private TodoResponse rent = new TodoResponse("t2", "Pay rent", false, "Alice", "alice@example.com", 0L);
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(todoController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testGetTodosByUserEmail_ndjsonRequested_streamsOneTodoPerLine() {
+        // Arrange
+        when(todoService.getTodosByUserEmail("alice@example.com")).thenReturn(Flux.just(milk, rent));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/todos?assigneeEmail={email}", "alice@example.com")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TodoResponse.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void testGetTodoById_nonExistingTodo_returnsNotFound() {
+        // Arrange
+        when(todoService.getTodoById("missing")).thenReturn(Mono.error(new EntityNotFoundException("missing")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/todos/{id}", "missing")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Entity: missing was not found");
+    }
+
+    @Test
+    void testCreateTodo_validRequest_returnsCreated() {
+        // Arrange
+        when(todoService.createTodo(any(CreateTodoRequest.class))).thenReturn(Mono.just(milk));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateTodoRequest("Buy milk", "alice@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("t1")
+                .jsonPath("$.assigneeName").isEqualTo("Alice");
+    }
+
+    @Test
+    void testSetDone_existingTodo_returnsUpdatedTodo() {
+        // Arrange
+        TodoResponse done = new TodoResponse("t1", "Buy milk", true, "Alice", "alice@example.com", 1L);
+        when(todoService.setDone("t1", true)).thenReturn(Mono.just(done));
+
+        // Act & Assert
+        webTestClient.patch().uri("/api/todos/{id}/done", "t1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(true)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.done").isEqualTo(true);
+    }
+
+    @Test
+    void testAssign_existingTodo_returnsNewAssignee() {
+        // Arrange
+        TodoResponse reassigned = new TodoResponse("t1", "Buy milk", false, "Bob", "bob@example.com", 1L);
+        when(todoService.assign(eq("t1"), any(AssignTodoRequest.class))).thenReturn(Mono.just(reassigned));
+
+        // Act & Assert
+        webTestClient.patch().uri("/api/todos/{id}/assignee", "t1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new AssignTodoRequest("bob@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.assigneeEmail").isEqualTo("bob@example.com");
+    }
+
+    @Test
+    void testEdit_existingTodo_returnsNewDescription() {
+        // Arrange
+        TodoResponse edited = new TodoResponse("t1", "Buy oat milk", false, "Alice", "alice@example.com", 1L);
+        when(todoService.edit(eq("t1"), any(EditTodoRequest.class))).thenReturn(Mono.just(edited));
+
+        // Act & Assert
+        webTestClient.patch().uri("/api/todos/{id}/description", "t1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new EditTodoRequest("Buy oat milk"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.description").isEqualTo("Buy oat milk");
+    }
+
+    @Test
+    void testDeleteTodo_existingTodo_returnsNoContent() {
+        // Arrange
+        when(todoService.deleteTodo("t1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.delete().uri("/api/todos/{id}", "t1")
+                .exchange()
+                .expectStatus().isNoContent();
+        verify(todoService).deleteTodo("t1");
+    }
+
+    @Test
+    void testDeleteTodo_nonExistingTodo_returnsNotFound() {
+        // Arrange
+        when(todoService.deleteTodo("missing")).thenReturn(Mono.error(new EntityNotFoundException("missing")));
+
+        // Act & Assert
+        webTestClient.delete().uri("/api/todos/{id}", "missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
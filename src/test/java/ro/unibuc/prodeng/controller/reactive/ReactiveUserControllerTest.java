@@ -0,0 +1,87 @@
+package ro.unibuc.prodeng.controller.reactive;
+
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.GlobalExceptionHandler;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.reactive.ReactiveUserService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ReactiveUserControllerTest {
+
+    @Mock
+    private ReactiveUserService userService;
+
+    @InjectMocks
+    private ReactiveUserController userController;
+
+    private WebTestClient webTestClient;
+
+    private UserResponse testUser1 = new UserResponse("1", "John Doe", "john@example.com", 0L);
+    private UserResponse testUser2 = new UserResponse("2", "Jane Smith", "jane@example.com", 0L);
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(userController)
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testGetAllUsers_ndjsonRequested_streamsOneUserPerLine() {
+        // Arrange
+        when(userService.getAllUsers()).thenReturn(Flux.just(testUser1, testUser2));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponse.class)
+                .hasSize(2)
+                .contains(testUser1, testUser2);
+    }
+
+    @Test
+    void testGetUserById_nonExistingUserRequested_returnsNotFound() {
+        // Arrange
+        when(userService.getUserById("999")).thenReturn(Mono.error(new EntityNotFoundException("999")));
+
+        // Act & Assert
+        webTestClient.get().uri("/api/users/{id}", "999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Entity: 999 was not found");
+    }
+
+    @Test
+    void testCreateUser_validRequestProvided_returnsCreated() {
+        // Arrange
+        when(userService.createUser(any(CreateUserRequest.class))).thenReturn(Mono.just(testUser1));
+
+        // Act & Assert
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CreateUserRequest("John Doe", "john@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1");
+    }
+}
@@ -0,0 +1,233 @@
+package ro.unibuc.prodeng.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+
+/**
+ * Seeds {@code users x todosPerUser} documents, then drives every TodoController and UserController endpoint
+ * over real HTTP and checks p50/p99/throughput/error-rate SLOs per endpoint.
+ * {@code GET /api/todos/stream} is left out: its server-sent event responses stay open until the stream timeout,
+ * so there is no request latency to measure, and the per-assignee connection cap rejects concurrent load by design.
+ * Run with {@code ./gradlew testLoad}; see {@link LoadTestSettings} for the knobs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("LoadTest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointLoadTest {
+
+    private static final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    // Started once per JVM like IntegrationTestBase's; Testcontainers removes it when the JVM exits
+    private static final MongoDBContainer mongoDBContainer = settings.mongoUrl() != null ? null
+            : new MongoDBContainer("mongo:6.0.20")
+                    .withExposedPorts(27017)
+                    .withLabel("ro.unibuc.prodeng", "load-test-mongo");
+
+    // Keeps seeded and created emails unique when an external Mongo is not wiped between runs
+    private static final String RUN_ID = new ObjectId().toHexString();
+
+    static {
+        if (mongoDBContainer != null) {
+            mongoDBContainer.start();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<ScenarioResult> results = new ArrayList<>();
+
+    private List<UserEntity> users;
+    private List<TodoEntity> todos;
+    // Consumed by the DELETE scenarios, one per request
+    private List<UserEntity> disposableUsers;
+    private List<TodoEntity> disposableTodos;
+    // A change token taken right after seeding, so delta syncs return the todos written by the other scenarios
+    private String changeToken;
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        String mongoUrl = mongoDBContainer != null
+                ? "mongodb://localhost:" + mongoDBContainer.getMappedPort(27017)
+                : settings.mongoUrl();
+        registry.add("mongodb.connection.url", () -> mongoUrl);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        // Never wipe a Mongo the test does not own unless asked to
+        if (mongoDBContainer != null || settings.wipe()) {
+            mongoTemplate.remove(new Query(), TodoEntity.class);
+            mongoTemplate.remove(new Query(), UserEntity.class);
+        }
+
+        int perScenario = settings.warmupRequests() + settings.requests();
+        users = newUsers("user", settings.users());
+        disposableUsers = newUsers("disposable", perScenario);
+        UserEntity disposableOwner = newUsers("owner", 1).getFirst();
+        insert(UserEntity.class, Stream.of(users, disposableUsers, List.of(disposableOwner)).flatMap(List::stream).toList());
+
+        todos = users.stream()
+                .flatMap(user -> IntStream.range(0, settings.todosPerUser()).mapToObj(i -> newTodo(user, i)))
+                .toList();
+        disposableTodos = IntStream.range(0, perScenario)
+                .mapToObj(i -> newTodo(disposableOwner, i))
+                .toList();
+        insert(TodoEntity.class, Stream.concat(todos.stream(), disposableTodos.stream()).toList());
+
+        HttpResponse<String> changes = HttpClient.newHttpClient()
+                .send(get("/api/todos/changes?assigneeEmail=" + user(0).email()), HttpResponse.BodyHandlers.ofString());
+        changeToken = objectMapper.readTree(changes.body()).get("nextToken").asText();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpointsMeetSlos() {
+        LoadGenerator generator = new LoadGenerator(settings.concurrency());
+        return scenarios().stream().map(scenario -> DynamicTest.dynamicTest(scenario.name(), () -> {
+            ScenarioResult result = generator.run(scenario.name(), settings.warmupRequests(), settings.requests(), scenario.request());
+            results.add(result);
+            List<String> violations = result.sloViolations();
+            Assertions.assertTrue(violations.isEmpty(), scenario.name() + ": " + String.join("; ", violations));
+        }));
+    }
+
+    @AfterAll
+    void report() throws Exception {
+        LoadTestReport.write(settings, results);
+    }
+
+    private List<Scenario> scenarios() {
+        String batch = IntStream.range(0, settings.batchSize())
+                .mapToObj(i -> "{\"description\":\"Batch todo " + i + "\",\"assigneeEmail\":\"" + user(i).email() + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        return List.of(
+                // TodoController
+                new Scenario("todos-list-by-assignee", i -> get("/api/todos?assigneeEmail=" + user(i).email())),
+                new Scenario("todos-page-by-assignee", i -> get("/api/todos?limit=20&assigneeEmail=" + user(i).email())),
+                new Scenario("todos-stream-by-assignee", i -> get("/api/todos?assigneeEmail=" + user(i).email(), "application/x-ndjson")),
+                new Scenario("todos-get-by-id", i -> get("/api/todos/" + todo(i).id())),
+                new Scenario("todos-changes-full", i -> get("/api/todos/changes?assigneeEmail=" + user(i).email())),
+                new Scenario("todos-changes-delta", i -> get("/api/todos/changes?assigneeEmail=" + user(i).email()
+                        + "&since=" + changeToken)),
+                new Scenario("todos-create", i -> send("POST", "/api/todos",
+                        "{\"description\":\"Load todo " + i + "\",\"assigneeEmail\":\"" + user(i).email() + "\"}")),
+                new Scenario("todos-create-batch", i -> send("POST", "/api/todos/batch", batch)),
+                new Scenario("todos-set-done", i -> send("PATCH", "/api/todos/" + todo(i).id() + "/done", String.valueOf(i % 2 == 0))),
+                new Scenario("todos-assign", i -> send("PATCH", "/api/todos/" + todo(i).id() + "/assignee",
+                        "{\"newAssigneeEmail\":\"" + user(i + 1).email() + "\"}")),
+                new Scenario("todos-edit", i -> send("PATCH", "/api/todos/" + todo(i).id() + "/description",
+                        "{\"description\":\"Edited " + i + "\"}")),
+                new Scenario("todos-bulk-done", i -> send("POST", "/api/todos/bulk", IntStream.range(0, settings.batchSize())
+                        .mapToObj(j -> "\"" + todo(i + j).id() + "\"")
+                        .collect(Collectors.joining(",", "{\"action\":\"DONE\",\"done\":" + (i % 2 == 0) + ",\"ids\":[", "]}")))),
+                new Scenario("todos-delete", i -> send("DELETE", "/api/todos/" + disposableTodos.get(i).id(), null)),
+                // UserController
+                new Scenario("users-list", i -> get("/api/users")),
+                new Scenario("users-page", i -> get("/api/users?limit=100&fields=id,email")),
+                new Scenario("users-stream", i -> get("/api/users", "application/x-ndjson")),
+                new Scenario("users-get-by-id", i -> get("/api/users/" + user(i).id())),
+                new Scenario("users-get-by-email", i -> get("/api/users/by-email?email=" + user(i).email())),
+                new Scenario("users-create", i -> send("POST", "/api/users",
+                        "{\"name\":\"Load user " + i + "\",\"email\":\"load" + i + "-" + RUN_ID + "@example.com\"}")),
+                new Scenario("users-create-batch", i -> send("POST", "/api/users/batch", IntStream.range(0, settings.batchSize())
+                        .mapToObj(j -> "{\"name\":\"Batch user " + j + "\",\"email\":\"batch" + i + "-" + j + "-" + RUN_ID + "@example.com\"}")
+                        .collect(Collectors.joining(",", "[", "]")))),
+                new Scenario("users-update", i -> send("PUT", "/api/users/" + user(i).id(), "{\"name\":\"Renamed " + i + "\"}")),
+                new Scenario("users-change-name", i -> send("PATCH", "/api/users/" + user(i).id() + "/name", "{\"name\":\"Patched " + i + "\"}")),
+                new Scenario("users-delete", i -> send("DELETE", "/api/users/" + disposableUsers.get(i).id(), null))
+        );
+    }
+
+    private UserEntity user(int i) {
+        return users.get(i % users.size());
+    }
+
+    private TodoEntity todo(int i) {
+        return todos.get(i % todos.size());
+    }
+
+    private HttpRequest get(String path) {
+        return get(path, "application/json");
+    }
+
+    private HttpRequest get(String path, String accept) {
+        return HttpRequest.newBuilder(uri(path)).header("Accept", accept).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path));
+        if (json == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static List<UserEntity> newUsers(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new UserEntity(new ObjectId().toHexString(), "Seeded " + prefix + " " + i,
+                        prefix + i + "-" + RUN_ID + "@loadtest.example.com", 0L, Instant.now()))
+                .toList();
+    }
+
+    private static TodoEntity newTodo(UserEntity assignee, int i) {
+        return new TodoEntity(new ObjectId().toHexString(), "Seeded todo " + i, i % 3 == 0,
+                assignee.id(), null, null, 0L, Instant.now());
+    }
+
+    private <T> void insert(Class<T> type, List<T> documents) {
+        // Chunked so that seeding large volumes doesn't build one huge bulk write in memory
+        int chunk = 10_000;
+        for (int from = 0; from < documents.size(); from += chunk) {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, type)
+                    .insert(documents.subList(from, Math.min(from + chunk, documents.size())))
+                    .execute();
+        }
+    }
+
+    private record Scenario(String name, IntFunction<HttpRequest> request) {
+    }
+}
@@ -0,0 +1,77 @@
+package ro.unibuc.prodeng.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Sends a scenario's requests from a fixed number of concurrent workers (closed model: each worker
+ * waits for its response before sending the next request) and records every request's latency.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final int concurrency;
+
+    LoadGenerator(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sends requests {@code 0 .. warmup-1} unmeasured, then measures requests {@code warmup .. warmup+requests-1}.
+     * The index lets scenarios pick a distinct target per request.
+     */
+    ScenarioResult run(String scenario, int warmup, int requests, IntFunction<HttpRequest> request) throws InterruptedException {
+        send(0, warmup, request, new long[warmup], new AtomicInteger(), new AtomicReference<>());
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long start = System.nanoTime();
+        send(warmup, requests, request, latencies, errors, firstError);
+        return ScenarioResult.of(scenario, latencies, errors.get(), firstError.get(), System.nanoTime() - start);
+    }
+
+    private void send(int offset, int count, IntFunction<HttpRequest> request, long[] latencies,
+                      AtomicInteger errors, AtomicReference<String> firstError) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < count) {
+                        HttpRequest httpRequest = request.apply(offset + i);
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+                            latencies[i] = System.nanoTime() - sent;
+                            if (response.statusCode() >= 300) {
+                                errors.incrementAndGet();
+                                firstError.compareAndSet(null, httpRequest.method() + " " + httpRequest.uri() + " -> " + response.statusCode());
+                            }
+                        } catch (IOException e) {
+                            latencies[i] = System.nanoTime() - sent;
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, httpRequest.method() + " " + httpRequest.uri() + " -> " + e);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
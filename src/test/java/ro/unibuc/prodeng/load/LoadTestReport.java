@@ -0,0 +1,51 @@
+package ro.unibuc.prodeng.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes the scenario results as a Markdown table (for humans and CI summaries) and as JSON (for trend tracking).
+ */
+final class LoadTestReport {
+
+    private static final Path REPORT_DIR = Path.of("build", "reports", "loadtest");
+
+    private LoadTestReport() {
+    }
+
+    static Path write(LoadTestSettings settings, List<ScenarioResult> results) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+
+        StringBuilder markdown = new StringBuilder()
+                .append("# Load test\n\n")
+                .append(String.format("%d users x %d todos, %d requests per scenario, concurrency %d%n%n",
+                        settings.users(), settings.todosPerUser(), settings.requests(), settings.concurrency()))
+                .append("| Scenario | Requests | Errors | p50 (ms) | p99 (ms) | Max (ms) | Throughput (/s) | SLO |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---|\n");
+        for (ScenarioResult result : results) {
+            List<String> violations = result.sloViolations();
+            markdown.append(String.format("| %s | %d | %d | %.1f | %.1f | %.1f | %.0f | %s |%n",
+                    result.scenario(), result.requests(), result.errors(), result.p50Millis(), result.p99Millis(),
+                    result.maxMillis(), result.throughputPerSecond(),
+                    violations.isEmpty() ? "pass" : "FAIL: " + String.join("; ", violations)));
+        }
+        Files.writeString(REPORT_DIR.resolve("summary.md"), markdown);
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("settings", settings);
+        json.put("results", results);
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(REPORT_DIR.resolve("summary.json").toFile(), json);
+
+        System.out.println(markdown);
+        return REPORT_DIR;
+    }
+}
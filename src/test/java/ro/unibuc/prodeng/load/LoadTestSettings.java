@@ -0,0 +1,47 @@
+package ro.unibuc.prodeng.load;
+
+/**
+ * Load test knobs, read from {@code loadtest.*} system properties (forwarded by {@code ./gradlew testLoad -Ploadtest.x=y}).
+ *
+ * @param mongoUrl        Mongo to run against instead of a Testcontainers one
+ * @param wipe            wipe the users and todos collections of {@code mongoUrl} before seeding
+ * @param users           seeded users
+ * @param todosPerUser    seeded todos per user
+ * @param requests        measured requests per scenario
+ * @param warmupRequests  unmeasured requests per scenario, sent before the measured ones
+ * @param concurrency     requests in flight at once
+ * @param batchSize       todos per POST /api/todos/batch request
+ */
+record LoadTestSettings(
+    String mongoUrl,
+    boolean wipe,
+    int users,
+    int todosPerUser,
+    int requests,
+    int warmupRequests,
+    int concurrency,
+    int batchSize
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("loadtest.mongoUrl"),
+                Boolean.getBoolean("loadtest.wipe"),
+                Integer.getInteger("loadtest.users", 100),
+                Integer.getInteger("loadtest.todosPerUser", 20),
+                Integer.getInteger("loadtest.requests", 2000),
+                Integer.getInteger("loadtest.warmupRequests", 200),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Integer.getInteger("loadtest.batchSize", 100)
+        );
+    }
+
+    /**
+     * SLO of a scenario: {@code loadtest.slo.<scenario>.<name>} if set, else {@code loadtest.slo.<name>}, else the default.
+     */
+    static double slo(String scenario, String name, double defaultValue) {
+        String value = System.getProperty("loadtest.slo." + scenario + "." + name,
+                System.getProperty("loadtest.slo." + name));
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,71 @@
+package ro.unibuc.prodeng.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latency and throughput of one scenario, checked against its SLOs.
+ */
+record ScenarioResult(
+    String scenario,
+    int requests,
+    int errors,
+    String firstError,
+    double p50Millis,
+    double p99Millis,
+    double maxMillis,
+    double throughputPerSecond
+) {
+
+    static ScenarioResult of(String scenario, long[] latencyNanos, int errors, String firstError, long elapsedNanos) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        return new ScenarioResult(
+                scenario,
+                sorted.length,
+                errors,
+                firstError,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6,
+                sorted.length / (elapsedNanos / 1e9)
+        );
+    }
+
+    double errorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    /**
+     * @return one message per violated SLO, empty when the scenario passes
+     */
+    List<String> sloViolations() {
+        List<String> violations = new ArrayList<>();
+        double maxP50 = LoadTestSettings.slo(scenario, "p50Ms", 25);
+        double maxP99 = LoadTestSettings.slo(scenario, "p99Ms", 250);
+        double minThroughput = LoadTestSettings.slo(scenario, "minThroughput", 0);
+        double maxErrorRate = LoadTestSettings.slo(scenario, "maxErrorRate", 0);
+        if (p50Millis > maxP50) {
+            violations.add(String.format("p50 %.1f ms > %.1f ms", p50Millis, maxP50));
+        }
+        if (p99Millis > maxP99) {
+            violations.add(String.format("p99 %.1f ms > %.1f ms", p99Millis, maxP99));
+        }
+        if (throughputPerSecond < minThroughput) {
+            violations.add(String.format("throughput %.0f/s < %.0f/s", throughputPerSecond, minThroughput));
+        }
+        if (errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.2f%% > %.2f%% (first error: %s)", errorRate() * 100, maxErrorRate * 100, firstError));
+        }
+        return violations;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
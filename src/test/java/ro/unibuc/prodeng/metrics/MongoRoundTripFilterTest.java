@@ -0,0 +1,100 @@
+package ro.unibuc.prodeng.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class MongoRoundTripFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MongoRoundTrips mongoRoundTrips = new MongoRoundTrips();
+
+    private final MongoRoundTripFilter filter = new MongoRoundTripFilter();
+
+    @BeforeEach
+    void setUp() {
+        RoundTripBudgets budgets = new RoundTripBudgets();
+        ReflectionTestUtils.setField(budgets, "defaultBudget", 4);
+        ReflectionTestUtils.setField(budgets, "overrides", "GET /api/todos/{id}=1");
+        budgets.parse();
+        ReflectionTestUtils.setField(filter, "mongoRoundTrips", mongoRoundTrips);
+        ReflectionTestUtils.setField(filter, "budgets", budgets);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void testDoFilter_commandsSent_addsServerTimingAndRecordsMetrics() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/todos/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/todos/{id}");
+            sendCommand(3);
+            sendCommand(2);
+            res.getWriter().write("{}");
+        };
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals("mongo;desc=\"2 round-trips\";dur=5.000", response.getHeader("Server-Timing"));
+        assertEquals(2.0, meterRegistry.get("prodeng.mongo.roundtrips").tags("uri", "/api/todos/{id}").summary().totalAmount());
+        assertEquals(5.0, meterRegistry.get("prodeng.mongo.request.time").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1.0, meterRegistry.get("prodeng.mongo.roundtrips.over.budget").counter().count());
+    }
+
+    @Test
+    void testDoFilter_withinDefaultBudget_doesNotCountOverBudget() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> sendCommand(1);
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals("mongo;desc=\"1 round-trips\";dur=1.000", response.getHeader("Server-Timing"));
+        assertNull(meterRegistry.find("prodeng.mongo.roundtrips.over.budget").counter());
+    }
+
+    @Test
+    void testDoFilter_nonApiRequest_isNotTracked() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        // Assert
+        assertNull(response.getHeader("Server-Timing"));
+        assertNull(meterRegistry.find("prodeng.mongo.roundtrips").summary());
+    }
+
+    private void sendCommand(long millis) {
+        mongoRoundTrips.commandStarted(mock(CommandStartedEvent.class));
+        CommandSucceededEvent succeeded = mock(CommandSucceededEvent.class);
+        when(succeeded.getElapsedTime(TimeUnit.NANOSECONDS)).thenReturn(TimeUnit.MILLISECONDS.toNanos(millis));
+        mongoRoundTrips.commandSucceeded(succeeded);
+    }
+}
@@ -0,0 +1,94 @@
+package ro.unibuc.prodeng.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.UserRepository;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.service.UserService;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserService target;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        ServiceMetricsAspect aspect = new ServiceMetricsAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        userService = factory.getProxy();
+    }
+
+    @Test
+    void testTime_successfulCall_recordsOkTimer() {
+        // Arrange
+        when(userRepository.findById("1")).thenReturn(Optional.of(new UserEntity("1", "Frodo", "frodo@theshire.me", 0L, null)));
+
+        // Act
+        userService.getUserById("1");
+
+        // Assert
+        assertEquals(1, meterRegistry.get("prodeng.service.calls")
+                .tags("service", "UserService", "method", "getUserById", "outcome", "ok")
+                .timer().count());
+        assertTrue(meterRegistry.find("prodeng.service.failures").counters().isEmpty());
+    }
+
+    @Test
+    void testTime_missingEntity_recordsNotFoundOutcomeAndFailure() {
+        // Arrange
+        when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserById("missing"));
+        assertEquals(1, meterRegistry.get("prodeng.service.calls")
+                .tags("method", "getUserById", "outcome", "not_found")
+                .timer().count());
+        assertEquals(1.0, meterRegistry.get("prodeng.service.failures")
+                .tags("outcome", "not_found", "exception", "EntityNotFoundException")
+                .counter().count());
+    }
+
+    @Test
+    void testTime_duplicateEmail_recordsConflictOutcomeAndFailure() {
+        // Arrange
+        when(userRepository.save(any(UserEntity.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        // Act & Assert
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.createUser(new CreateUserRequest("Frodo", "frodo@theshire.me")));
+        assertEquals(1, meterRegistry.get("prodeng.service.calls")
+                .tags("method", "createUser", "outcome", "conflict")
+                .timer().count());
+        assertEquals(1.0, meterRegistry.get("prodeng.service.failures")
+                .tags("outcome", "conflict", "exception", "EmailAlreadyExistsException")
+                .counter().count());
+    }
+}
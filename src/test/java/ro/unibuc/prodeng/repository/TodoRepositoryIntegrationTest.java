@@ -0,0 +1,176 @@
+package ro.unibuc.prodeng.repository;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TodoRepository Integration Tests")
+class TodoRepositoryIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        todoRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testInsertUnordered_repeatedId_insertsTheRestAndReportsFailureByPosition() {
+        // Arrange
+        String repeatedId = new ObjectId().toHexString();
+        List<TodoEntity> todos = List.of(
+                todo(repeatedId, "Buy milk"),
+                todo(repeatedId, "Buy milk again"),
+                todo(new ObjectId().toHexString(), "Pay rent"));
+
+        // Act
+        Map<Integer, String> failures = todoRepository.insertUnordered(todos);
+
+        // Assert
+        assertEquals(Set.of(1), failures.keySet());
+        assertTrue(failures.get(1).contains("E11000"));
+        assertEquals(2, todoRepository.count());
+    }
+
+    @Test
+    void testInsertUnordered_emptyList_writesNothing() {
+        // Act
+        Map<Integer, String> failures = todoRepository.insertUnordered(List.of());
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        assertEquals(0, todoRepository.count());
+    }
+
+    @Test
+    void testFindResponses_existingAssignee_joinsNameEmailAndVersion() {
+        // Arrange
+        UserEntity alice = userRepository.save(new UserEntity(null, "Alice", "alice@example.com", null, null));
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Buy milk", true, alice.id(), null, null, 4L, null),
+                new TodoEntity("000000000000000000000002", "Pay rent", false, alice.id(), null, null, 0L, null)));
+
+        // Act
+        List<TodoResponse> result = todoRepository.findResponses(Criteria.where("assignedUserId").is(alice.id()));
+
+        // Assert
+        assertEquals(2, result.size());
+        TodoResponse milk = result.stream().filter(todo -> todo.id().equals("000000000000000000000001")).findFirst().orElseThrow();
+        assertEquals(new TodoResponse("000000000000000000000001", "Buy milk", true, "Alice", "alice@example.com", 4L), milk);
+    }
+
+    @Test
+    void testFindResponseById_deletedAssignee_returnsTodoWithoutAssignee() {
+        // Arrange
+        String deletedUserId = new ObjectId().toHexString();
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Buy milk", false, deletedUserId, null, null, 2L, null)));
+
+        // Act
+        Optional<TodoResponse> result = todoRepository.findResponseById("000000000000000000000001");
+
+        // Assert
+        assertEquals(Optional.of(new TodoResponse("000000000000000000000001", "Buy milk", false, null, null, 2L)), result);
+    }
+
+    @Test
+    void testFindResponseById_orphanedTodo_returnsTodoWithoutAssignee() {
+        // Arrange: the assignee id is cleared when the user is deleted with the orphan policy
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Buy milk", false, null, null, null, 1L, null)));
+
+        // Act
+        Optional<TodoResponse> result = todoRepository.findResponseById("000000000000000000000001");
+
+        // Assert
+        assertEquals(Optional.of(new TodoResponse("000000000000000000000001", "Buy milk", false, null, null, 1L)), result);
+    }
+
+    @Test
+    void testFindResponses_legacyNonObjectIdAssignee_returnsItWithoutAssigneeAlongsideTheOthers() {
+        // Arrange
+        UserEntity alice = userRepository.save(new UserEntity(null, "Alice", "alice@example.com", null, null));
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Legacy", false, "u1", null, null, 1L, null),
+                new TodoEntity("000000000000000000000002", "Current", false, alice.id(), null, null, 1L, null)));
+
+        // Act
+        List<TodoResponse> result = todoRepository.findResponses(new Criteria());
+
+        // Assert
+        assertEquals(Set.of(
+                new TodoResponse("000000000000000000000001", "Legacy", false, null, null, 1L),
+                new TodoResponse("000000000000000000000002", "Current", false, "Alice", "alice@example.com", 1L)), Set.copyOf(result));
+    }
+
+    @Test
+    void testResyncAssigneeSnapshots_legacyNonObjectIdAssignee_leavesItUntouched() {
+        // Arrange
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Legacy", false, "u1", "Old", "old@example.com", 1L, null)));
+
+        // Act
+        todoRepository.resyncAssigneeSnapshots();
+
+        // Assert
+        TodoEntity legacy = todoRepository.findById("000000000000000000000001").orElseThrow();
+        assertEquals("Old", legacy.assigneeName());
+        assertEquals(1L, legacy.version());
+    }
+
+    @Test
+    void testFindResponseById_missingTodo_returnsEmpty() {
+        // Act & Assert
+        assertTrue(todoRepository.findResponseById("000000000000000000000009").isEmpty());
+    }
+
+    @Test
+    void testResyncAssigneeSnapshots_staleSnapshots_rewritesOnlyThoseOfExistingUsers() {
+        // Arrange
+        UserEntity alice = userRepository.save(new UserEntity(null, "Alice Renamed", "alice@example.com", null, null));
+        String orphanedUserId = new ObjectId().toHexString();
+        todoRepository.insertUnordered(List.of(
+                new TodoEntity("000000000000000000000001", "Stale", false, alice.id(), "Alice", "alice@example.com", 2L, null),
+                new TodoEntity("000000000000000000000002", "Missing", false, alice.id(), null, null, null, null),
+                new TodoEntity("000000000000000000000003", "Current", false, alice.id(), "Alice Renamed", "alice@example.com", 5L, null),
+                new TodoEntity("000000000000000000000004", "Orphaned", false, orphanedUserId, "Gone", "gone@example.com", 1L, null)));
+
+        // Act
+        todoRepository.resyncAssigneeSnapshots();
+
+        // Assert
+        TodoEntity stale = todoRepository.findById("000000000000000000000001").orElseThrow();
+        assertEquals("Alice Renamed", stale.assigneeName());
+        assertEquals("Stale", stale.description());
+        assertEquals(3L, stale.version());
+        assertNotNull(stale.updatedAt());
+        TodoEntity missing = todoRepository.findById("000000000000000000000002").orElseThrow();
+        assertEquals("Alice Renamed", missing.assigneeName());
+        assertEquals("alice@example.com", missing.assigneeEmail());
+        assertEquals(1L, missing.version());
+        assertEquals(5L, todoRepository.findById("000000000000000000000003").orElseThrow().version());
+        assertEquals("Gone", todoRepository.findById("000000000000000000000004").orElseThrow().assigneeName());
+    }
+
+    private static TodoEntity todo(String id, String description) {
+        return new TodoEntity(id, description, false, "u1", null, null, 0L, null);
+    }
+}
@@ -0,0 +1,111 @@
+package ro.unibuc.prodeng.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.event.UserRenamedEvent;
+import ro.unibuc.prodeng.repository.TodoRepository;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class AssigneeSnapshotUpdaterTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @InjectMocks
+    private AssigneeSnapshotUpdater updater;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(updater, "meterRegistry", meterRegistry);
+        updater.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        updater.shutdown();
+    }
+
+    @Test
+    void testOnUserRenamed_rename_isPropagatedOffTheCallingThread() throws InterruptedException {
+        // Arrange
+        CountDownLatch blocked = new CountDownLatch(1);
+        when(todoRepository.updateAssigneeSnapshot("u1", "Alice Renamed", "alice@example.com")).thenAnswer(invocation -> {
+            blocked.await();
+            return 3L;
+        });
+
+        // Act: returns while the update is still blocked
+        updater.onUserRenamed(new UserRenamedEvent("u1", "Alice Renamed", "alice@example.com", Instant.now()));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("prodeng.todos.snapshot.pending").gauge().value());
+        blocked.countDown();
+        verify(todoRepository, timeout(5000)).updateAssigneeSnapshot("u1", "Alice Renamed", "alice@example.com");
+        updater.shutdown();
+        assertEquals(0.0, meterRegistry.get("prodeng.todos.snapshot.pending").gauge().value());
+        assertEquals(3.0, meterRegistry.get("prodeng.todos.snapshot.updated").counter().count());
+    }
+
+    @Test
+    void testOnUserRenamed_twoRenames_areAppliedInOrder() throws InterruptedException {
+        // Arrange
+        when(todoRepository.updateAssigneeSnapshot(any(), any(), any())).thenReturn(1L);
+
+        // Act
+        updater.onUserRenamed(new UserRenamedEvent("u1", "First", "alice@example.com", Instant.now()));
+        updater.onUserRenamed(new UserRenamedEvent("u1", "Second", "alice@example.com", Instant.now()));
+        updater.shutdown();
+
+        // Assert
+        InOrder inOrder = inOrder(todoRepository);
+        inOrder.verify(todoRepository).updateAssigneeSnapshot("u1", "First", "alice@example.com");
+        inOrder.verify(todoRepository).updateAssigneeSnapshot("u1", "Second", "alice@example.com");
+    }
+
+    @Test
+    void testOnUserRenamed_updateFails_isRecordedAsError() throws InterruptedException {
+        // Arrange
+        when(todoRepository.updateAssigneeSnapshot(any(), any(), any())).thenThrow(new IllegalStateException("Mongo is down"));
+
+        // Act
+        updater.onUserRenamed(new UserRenamedEvent("u1", "Alice Renamed", "alice@example.com", Instant.now()));
+        updater.shutdown();
+
+        // Assert
+        assertEquals(1, meterRegistry.get("prodeng.todos.snapshot.lag").tag("outcome", "error").timer().count());
+        assertEquals(0.0, meterRegistry.get("prodeng.todos.snapshot.pending").gauge().value());
+    }
+
+    @Test
+    void testResyncOnStartup_runsBeforeLaterRenames() throws InterruptedException {
+        // Arrange
+        when(todoRepository.updateAssigneeSnapshot(any(), any(), any())).thenReturn(1L);
+
+        // Act
+        updater.resyncOnStartup();
+        updater.onUserRenamed(new UserRenamedEvent("u1", "Alice Renamed", "alice@example.com", Instant.now()));
+        updater.shutdown();
+
+        // Assert
+        InOrder inOrder = inOrder(todoRepository);
+        inOrder.verify(todoRepository).resyncAssigneeSnapshots();
+        inOrder.verify(todoRepository).updateAssigneeSnapshot("u1", "Alice Renamed", "alice@example.com");
+    }
+}
@@ -0,0 +1,131 @@
+package ro.unibuc.prodeng.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.response.TodoResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class DoneStateBufferTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @InjectMocks
+    private DoneStateBuffer doneBuffer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TodoResponse todo = new TodoResponse("t1", "Buy milk", false, "Alice", "alice@example.com", 3L);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(doneBuffer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(doneBuffer, "enabled", true);
+        // Flushes are triggered by the tests
+        ReflectionTestUtils.setField(doneBuffer, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(doneBuffer, "maxPending", 2);
+        doneBuffer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        doneBuffer.shutdown();
+    }
+
+    @Test
+    void testOverlay_bufferedChange_showsNewFlagAndNextVersion() {
+        // Arrange
+        doneBuffer.offer("t1", true);
+
+        // Act
+        TodoResponse result = doneBuffer.overlay(todo);
+
+        // Assert
+        assertTrue(result.done());
+        assertEquals(4L, result.version());
+    }
+
+    @Test
+    void testOverlay_toggledBackToStoredFlag_keepsVersion() {
+        // Arrange
+        doneBuffer.offer("t1", true);
+        doneBuffer.offer("t1", false);
+
+        // Act
+        TodoResponse result = doneBuffer.overlay(todo);
+
+        // Assert
+        assertSame(todo, result);
+    }
+
+    @Test
+    void testFlushAll_coalescedToggles_writesLatestFlagOnce() {
+        // Arrange
+        doneBuffer.offer("t1", true);
+        doneBuffer.offer("t1", false);
+        doneBuffer.offer("t1", true);
+        when(todoRepository.updateDone(any())).thenReturn(1L);
+
+        // Act
+        doneBuffer.flushAll();
+
+        // Assert
+        verify(todoRepository).updateDone(Map.of("t1", true));
+        assertEquals(0.0, meterRegistry.get("prodeng.todos.done.pending").gauge().value());
+        assertEquals(3.0, meterRegistry.get("prodeng.todos.done.buffered").counter().count());
+        assertEquals(1, meterRegistry.get("prodeng.todos.done.flush").tag("outcome", "ok").timer().count());
+    }
+
+    @Test
+    void testFlushAll_writeFails_keepsFlagsForNextFlush() {
+        // Arrange
+        doneBuffer.offer("t1", true);
+        when(todoRepository.updateDone(any())).thenThrow(new IllegalStateException("Mongo is down"));
+
+        // Act
+        doneBuffer.flushAll();
+
+        // Assert
+        assertTrue(doneBuffer.overlay(todo).done());
+        assertEquals(1, meterRegistry.get("prodeng.todos.done.flush").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testOffer_bufferFull_rejectsNewTodosOnly() {
+        // Arrange
+        doneBuffer.offer("t1", true);
+        doneBuffer.offer("t2", true);
+
+        // Act & Assert
+        assertFalse(doneBuffer.offer("t3", true));
+        assertTrue(doneBuffer.offer("t1", false));
+    }
+
+    @Test
+    void testShutdown_bufferedFlags_areWritten() throws InterruptedException {
+        // Arrange
+        doneBuffer.offer("t1", true);
+
+        // Act
+        doneBuffer.shutdown();
+
+        // Assert
+        verify(todoRepository).updateDone(Map.of("t1", true));
+    }
+}
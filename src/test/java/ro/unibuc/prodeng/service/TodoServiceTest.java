@@ -0,0 +1,511 @@
+package ro.unibuc.prodeng.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import ro.unibuc.prodeng.event.TodoChangedEvent;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.model.TodoTombstone;
+import ro.unibuc.prodeng.repository.TodoRepository;
+import ro.unibuc.prodeng.repository.TodoTombstoneRepository;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.BulkTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BatchItemStatus;
+import ro.unibuc.prodeng.response.BulkTodoResponse;
+import ro.unibuc.prodeng.response.TodoChangesResponse;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.exception.ChangeTokenExpiredException;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+class TodoServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private DoneStateBuffer doneBuffer = new DoneStateBuffer();
+
+    @InjectMocks
+    private TodoService todoService;
+
+    private final UserEntity alice = new UserEntity("u1", "Alice", "alice@example.com", 0L, null);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoService, "changesOverlap", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(todoService, "bulkChunkSize", 2);
+        ReflectionTestUtils.setField(todoService, "maxBatchSize", 100);
+    }
+
+    @Test
+    void testSetDone_existingTodo_setsOnlyDoneField() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity updated = new TodoEntity("t1", "Buy milk", true, "u1", null, null, 1L, null);
+        when(todoRepository.updateById(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(updated));
+        when(userService.getUserEntityById("u1")).thenReturn(alice);
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true, null);
+
+        // Assert
+        assertTrue(result.done());
+        assertEquals("Alice", result.assigneeName());
+        verify(todoRepository).updateById(eq("t1"), isNull(), argThat(update ->
+                update.getUpdateObject().get("$set", Document.class).keySet().equals(Set.of("done"))));
+        verify(todoRepository, never()).findById(any());
+        verify(todoRepository, never()).save(any());
+    }
+
+    @Test
+    void testSetDone_writeBehindEnabled_buffersInsteadOfWriting() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity todo = new TodoEntity("t1", "Buy milk", false, "u1", null, null, 3L, null);
+        doReturn(true).when(doneBuffer).isEnabled();
+        doReturn(true).when(doneBuffer).offer("t1", true);
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(todo));
+        when(userService.getUserEntityById("u1")).thenReturn(alice);
+
+        // Act
+        todoService.setDone("t1", true, null);
+
+        // Assert
+        verify(doneBuffer).offer("t1", true);
+        verify(todoRepository, never()).updateById(any(), any(), any());
+    }
+
+    @Test
+    void testSetDone_writeBehindWithExpectedVersion_writesThrough() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity updated = new TodoEntity("t1", "Buy milk", true, "u1", null, null, 4L, null);
+        doReturn(true).when(doneBuffer).isEnabled();
+        when(todoRepository.updateById(eq("t1"), eq(3L), any(Update.class))).thenReturn(Optional.of(updated));
+        when(userService.getUserEntityById("u1")).thenReturn(alice);
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true, 3L);
+
+        // Assert
+        assertEquals(4L, result.version());
+        verify(doneBuffer).flush("t1");
+        verify(doneBuffer, never()).offer(any(), anyBoolean());
+    }
+
+    @Test
+    void testSetDone_nonExistingTodo_throwsEntityNotFoundException() {
+        // Arrange
+        when(todoRepository.updateById(eq("missing"), isNull(), any(Update.class))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.setDone("missing", true, null));
+    }
+
+    @Test
+    void testSetDone_staleExpectedVersion_throwsPreconditionFailedException() {
+        // Arrange
+        when(todoRepository.updateById(eq("t1"), eq(4L), any(Update.class))).thenReturn(Optional.empty());
+        when(todoRepository.existsById("t1")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> todoService.setDone("t1", true, 4L));
+    }
+
+    @Test
+    void testEdit_existingTodo_returnsUpdatedDescription() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity updated = new TodoEntity("t1", "Buy oat milk", false, "u1", null, null, 1L, null);
+        when(todoRepository.updateById(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(updated));
+        when(userService.getUserEntityById("u1")).thenReturn(alice);
+
+        // Act
+        TodoResponse result = todoService.edit("t1", new EditTodoRequest("Buy oat milk"), null);
+
+        // Assert
+        assertEquals("Buy oat milk", result.description());
+        verify(todoRepository, never()).save(any());
+    }
+
+    @Test
+    void testAssign_existingTodoAndUser_returnsNewAssignee() throws EntityNotFoundException {
+        // Arrange
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com", 0L, null);
+        TodoEntity previous = new TodoEntity("t1", "Buy milk", false, "u1", null, null, 0L, null);
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(bob);
+        when(todoRepository.updateByIdReturningPrevious(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(previous));
+
+        // Act
+        TodoResponse result = todoService.assign("t1", new AssignTodoRequest("bob@example.com"), null);
+
+        // Assert
+        assertEquals("Bob", result.assigneeName());
+        assertEquals("bob@example.com", result.assigneeEmail());
+        assertEquals(1L, result.version());
+        verify(userService, never()).getUserEntityById(any());
+        verify(tombstoneRepository).save(argThat(tombstone ->
+                tombstone.todoId().equals("t1") && tombstone.assignedUserId().equals("u1")));
+        verify(eventPublisher).publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.REASSIGNED, "t1", result));
+    }
+
+    @Test
+    void testAssign_legacyTodoWithoutVersion_returnsFirstVersion() throws EntityNotFoundException {
+        // Arrange
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com", 0L, null);
+        TodoEntity legacy = new TodoEntity("t1", "Buy milk", false, "u1", null, null, null, null);
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(bob);
+        when(todoRepository.updateByIdReturningPrevious(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(legacy));
+
+        // Act
+        TodoResponse result = todoService.assign("t1", new AssignTodoRequest("bob@example.com"), null);
+
+        // Assert
+        assertEquals(1L, result.version());
+        assertEquals("Bob", result.assigneeName());
+    }
+
+    @Test
+    void testAssign_denormalizeDisabled_clearsAssigneeSnapshot() throws EntityNotFoundException {
+        // Arrange
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com", 0L, null);
+        TodoEntity previous = new TodoEntity("t1", "Buy milk", false, "u1", "Alice", "alice@example.com", 0L, null);
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(bob);
+        when(todoRepository.updateByIdReturningPrevious(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(previous));
+
+        // Act
+        todoService.assign("t1", new AssignTodoRequest("bob@example.com"), null);
+
+        // Assert
+        verify(todoRepository).updateByIdReturningPrevious(eq("t1"), isNull(), argThat(update ->
+                update.getUpdateObject().get("$unset", Document.class).keySet().equals(Set.of("assigneeName", "assigneeEmail"))));
+    }
+
+    @Test
+    void testAssign_denormalizeEnabled_writesAssigneeSnapshot() throws EntityNotFoundException {
+        // Arrange
+        ReflectionTestUtils.setField(todoService, "denormalizeAssignee", true);
+        UserEntity bob = new UserEntity("u2", "Bob", "bob@example.com", 0L, null);
+        TodoEntity previous = new TodoEntity("t1", "Buy milk", false, "u1", "Alice", "alice@example.com", 0L, null);
+        when(userService.getUserEntityByEmail("bob@example.com")).thenReturn(bob);
+        when(todoRepository.updateByIdReturningPrevious(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(previous));
+
+        // Act
+        todoService.assign("t1", new AssignTodoRequest("bob@example.com"), null);
+
+        // Assert
+        verify(todoRepository).updateByIdReturningPrevious(eq("t1"), isNull(), argThat(update -> {
+            Document set = update.getUpdateObject().get("$set", Document.class);
+            return "Bob".equals(set.get("assigneeName")) && "bob@example.com".equals(set.get("assigneeEmail"));
+        }));
+    }
+
+    @Test
+    void testGetTodoById_denormalizeEnabled_servesAssigneeFromSnapshot() throws EntityNotFoundException {
+        // Arrange
+        ReflectionTestUtils.setField(todoService, "denormalizeAssignee", true);
+        TodoEntity todo = new TodoEntity("t1", "Buy milk", false, "u1", "Alice", "alice@example.com", 2L, null);
+        when(todoRepository.findById("t1")).thenReturn(Optional.of(todo));
+
+        // Act
+        TodoResponse result = todoService.getTodoById("t1");
+
+        // Assert
+        assertEquals("Alice", result.assigneeName());
+        assertEquals("alice@example.com", result.assigneeEmail());
+        verify(userService, never()).getUserEntityById(any());
+        verify(todoRepository, never()).findResponseById(any());
+    }
+
+    @Test
+    void testSetDone_denormalizeDisabled_ignoresLeftoverSnapshot() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity updated = new TodoEntity("t1", "Buy milk", true, "u1", "Alice Old", "alice@example.com", 1L, null);
+        when(todoRepository.updateById(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(updated));
+        when(userService.getUserEntityById("u1")).thenReturn(alice);
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true, null);
+
+        // Assert
+        assertEquals("Alice", result.assigneeName());
+        verify(userService).getUserEntityById("u1");
+    }
+
+    @Test
+    void testDeleteTodo_existingTodo_deletesWithSingleCall() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity todo = new TodoEntity("t1", "Buy milk", false, "u1", null, null, 0L, null);
+        when(todoRepository.removeById("t1", null)).thenReturn(Optional.of(todo));
+
+        // Act
+        todoService.deleteTodo("t1", null);
+
+        // Assert
+        verify(todoRepository, never()).existsById(any());
+        verify(todoRepository, never()).deleteById(any());
+        verify(tombstoneRepository).save(argThat(tombstone ->
+                tombstone.todoId().equals("t1") && tombstone.assignedUserId().equals("u1")));
+        verify(eventPublisher).publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, "t1", null));
+    }
+
+    @Test
+    void testDeleteTodo_nonExistingTodo_throwsEntityNotFoundException() {
+        // Arrange
+        when(todoRepository.removeById("missing", null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.deleteTodo("missing", null));
+        verifyNoInteractions(tombstoneRepository);
+        verify(eventPublisher, never()).publishEvent(any(TodoChangedEvent.class));
+    }
+
+    @Test
+    void testSetDone_orphanedTodo_returnsTodoWithoutAssignee() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity orphan = new TodoEntity("t1", "Buy milk", true, null, null, null, 1L, null);
+        when(todoRepository.updateById(eq("t1"), isNull(), any(Update.class))).thenReturn(Optional.of(orphan));
+
+        // Act
+        TodoResponse result = todoService.setDone("t1", true, null);
+
+        // Assert
+        assertNull(result.assigneeName());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testGetTodoChanges_withoutToken_returnsAllTodos() throws EntityNotFoundException {
+        // Arrange
+        TodoEntity todo = new TodoEntity("t1", "Buy milk", false, "u1", null, null, 0L, null);
+        when(userService.getUserEntityByEmail("alice@example.com")).thenReturn(alice);
+        when(todoRepository.findByAssignedUserId("u1")).thenReturn(List.of(todo));
+
+        // Act
+        TodoChangesResponse result = todoService.getTodoChangesByUserEmail("alice@example.com", null);
+
+        // Assert
+        assertTrue(result.reset());
+        assertEquals(List.of("t1"), result.changed().stream().map(TodoResponse::id).toList());
+        assertTrue(result.deleted().isEmpty());
+        assertNotNull(result.nextToken());
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void testGetTodoChanges_withToken_returnsChangedAndDeletedSinceToken() throws EntityNotFoundException {
+        // Arrange
+        Instant syncedAt = Instant.now().minus(Duration.ofMinutes(10)).truncatedTo(ChronoUnit.MILLIS);
+        UserEntity user = new UserEntity("u1", "Alice", "alice@example.com", 0L, syncedAt.minus(Duration.ofDays(1)));
+        TodoEntity changed = new TodoEntity("t1", "Buy milk", true, "u1", null, null, 2L, Instant.now());
+        Instant from = syncedAt.minus(Duration.ofSeconds(5));
+        when(userService.getUserEntityByEmail("alice@example.com")).thenReturn(user);
+        when(todoRepository.findByAssignedUserIdAndUpdatedAtGreaterThanEqual("u1", from)).thenReturn(List.of(changed));
+        when(tombstoneRepository.findByAssignedUserIdAndDeletedAtGreaterThanEqual("u1", from)).thenReturn(List.of(
+                TodoTombstone.of("t1", "u1", Instant.now()),
+                TodoTombstone.of("t2", "u1", Instant.now())));
+
+        // Act
+        TodoChangesResponse result = todoService.getTodoChangesByUserEmail("alice@example.com", ChangeTokens.encode(syncedAt));
+
+        // Assert
+        assertFalse(result.reset());
+        assertEquals(List.of("t1"), result.changed().stream().map(TodoResponse::id).toList());
+        // t1 came back after it left, so it is only listed as changed
+        assertEquals(List.of("t2"), result.deleted());
+        verify(todoRepository, never()).findByAssignedUserId(any());
+    }
+
+    @Test
+    void testGetTodoChanges_assigneeRenamedSinceToken_returnsAllTodos() throws EntityNotFoundException {
+        // Arrange
+        Instant syncedAt = Instant.now().minus(Duration.ofMinutes(10)).truncatedTo(ChronoUnit.MILLIS);
+        UserEntity renamed = new UserEntity("u1", "Alicia", "alice@example.com", 1L, syncedAt.plusSeconds(1));
+        TodoEntity todo = new TodoEntity("t1", "Buy milk", false, "u1", null, null, 0L, null);
+        when(userService.getUserEntityByEmail("alice@example.com")).thenReturn(renamed);
+        when(todoRepository.findByAssignedUserId("u1")).thenReturn(List.of(todo));
+
+        // Act
+        TodoChangesResponse result = todoService.getTodoChangesByUserEmail("alice@example.com", ChangeTokens.encode(syncedAt));
+
+        // Assert
+        assertTrue(result.reset());
+        assertEquals("Alicia", result.changed().getFirst().assigneeName());
+        verify(todoRepository, never()).findByAssignedUserIdAndUpdatedAtGreaterThanEqual(any(), any());
+    }
+
+    @Test
+    void testGetTodoChanges_tokenOlderThanTombstones_throwsChangeTokenExpiredException() {
+        // Arrange
+        String token = ChangeTokens.encode(Instant.now().minus(TodoTombstone.RETENTION).minusSeconds(60));
+
+        // Act & Assert
+        assertThrows(ChangeTokenExpiredException.class, () -> todoService.getTodoChangesByUserEmail("alice@example.com", token));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testGetTodoChanges_malformedToken_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> todoService.getTodoChangesByUserEmail("alice@example.com", "not-a-token"));
+    }
+
+    @Test
+    void testCreateTodos_mixedBatch_reportsEachItemInRequestOrder() {
+        // Arrange
+        List<CreateTodoRequest> requests = Arrays.asList(
+                new CreateTodoRequest("Buy milk", "alice@example.com"),
+                null,
+                new CreateTodoRequest("Walk the dog", "nobody@example.com"),
+                new CreateTodoRequest("Pay rent", "alice@example.com"));
+        when(userService.getUserEntitiesByEmails(Set.of("alice@example.com", "nobody@example.com")))
+                .thenReturn(Map.of("alice@example.com", alice));
+        when(todoRepository.insertUnordered(any())).thenReturn(Map.of(1, "E11000 duplicate key"));
+
+        // Act
+        List<BatchItemResponse<TodoResponse>> results = todoService.createTodos(requests);
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BatchItemResponse::index).toList());
+        assertEquals(List.of(BatchItemStatus.CREATED, BatchItemStatus.INVALID, BatchItemStatus.NOT_FOUND, BatchItemStatus.FAILED),
+                results.stream().map(BatchItemResponse::status).toList());
+        assertEquals("Buy milk", results.get(0).result().description());
+        assertEquals("alice@example.com", results.get(0).result().assigneeEmail());
+        assertEquals("E11000 duplicate key", results.get(3).error());
+        // One assignee lookup and one bulk insert of the valid todos
+        verify(userService).getUserEntitiesByEmails(any());
+        verify(userService, never()).getUserEntityByEmail(any());
+        verify(todoRepository).insertUnordered(argThat(todos -> todos.size() == 2));
+        verify(todoRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(TodoChangedEvent.class));
+    }
+
+    @Test
+    void testCreateTodos_failedValidation_reportsViolationsWithoutInserting() {
+        // Arrange
+        CreateTodoRequest request = new CreateTodoRequest("", "alice@example.com");
+        @SuppressWarnings("unchecked")
+        ConstraintViolation<CreateTodoRequest> violation = mock(ConstraintViolation.class);
+        when(violation.getMessage()).thenReturn("Description is required");
+        when(validator.validate(request)).thenReturn(Set.of(violation));
+        when(userService.getUserEntitiesByEmails(any())).thenReturn(Map.of("alice@example.com", alice));
+
+        // Act
+        List<BatchItemResponse<TodoResponse>> results = todoService.createTodos(List.of(request));
+
+        // Assert
+        assertEquals(BatchItemStatus.INVALID, results.getFirst().status());
+        assertEquals("Description is required", results.getFirst().error());
+        verify(todoRepository).insertUnordered(List.of());
+    }
+
+    @Test
+    void testCreateTodos_moreRowsThanLimit_throwsIllegalArgumentException() {
+        // Arrange
+        ReflectionTestUtils.setField(todoService, "maxBatchSize", 1);
+        List<CreateTodoRequest> requests = List.of(
+                new CreateTodoRequest("Buy milk", "alice@example.com"),
+                new CreateTodoRequest("Pay rent", "alice@example.com"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> todoService.createTodos(requests));
+        verifyNoInteractions(userService, todoRepository);
+    }
+
+    @Test
+    void testBulkUpdate_deleteByFilter_deletesChunkByChunkAndWritesTombstones() throws EntityNotFoundException {
+        // Arrange
+        when(userService.getUserEntityByEmail("alice@example.com")).thenReturn(alice);
+        when(todoRepository.findTargets(any(Criteria.class), isNull(), eq(2))).thenReturn(List.of(
+                new TodoEntity("t1", null, false, "u1", null, null, null, null),
+                new TodoEntity("t2", null, false, "u1", null, null, null, null)));
+        when(todoRepository.findTargets(any(Criteria.class), eq("t2"), eq(2))).thenReturn(List.of(
+                new TodoEntity("t3", null, false, "u1", null, null, null, null)));
+        when(todoRepository.removeMatching(any(Criteria.class))).thenReturn(2L, 1L);
+        BulkTodoRequest request = new BulkTodoRequest(BulkTodoRequest.Action.DELETE, null,
+                new BulkTodoRequest.Filter("alice@example.com", false), null, null);
+
+        // Act
+        BulkTodoResponse result = todoService.bulkUpdate(request);
+
+        // Assert
+        assertEquals(new BulkTodoResponse(3, 3), result);
+        verify(todoRepository, times(2)).removeMatching(any(Criteria.class));
+        verify(todoRepository, never()).removeById(any(), any());
+        verify(tombstoneRepository, times(2)).upsertAll(any());
+        verify(eventPublisher).publishEvent(new TodoChangedEvent(TodoChangedEvent.Type.DELETED, "t3", null));
+    }
+
+    @Test
+    void testBulkUpdate_markDoneByIds_onlyWritesTodosWhoseFlagChanges() throws EntityNotFoundException {
+        // Arrange
+        when(todoRepository.findTargets(any(Criteria.class), isNull(), eq(2))).thenReturn(List.of(
+                new TodoEntity("t1", null, true, "u1", null, null, null, null)));
+        when(todoRepository.updateMatching(any(Criteria.class), any(Update.class))).thenReturn(0L);
+        BulkTodoRequest request = new BulkTodoRequest(BulkTodoRequest.Action.DONE, List.of("t1", "missing"), null, true, null);
+
+        // Act
+        BulkTodoResponse result = todoService.bulkUpdate(request);
+
+        // Assert
+        assertEquals(new BulkTodoResponse(1, 0), result);
+        verify(todoRepository).updateMatching(any(Criteria.class), argThat(update ->
+                update.getUpdateObject().get("$set", Document.class).keySet().equals(Set.of("done"))));
+        // Nothing changed, so there is nothing to read back for stream clients
+        verify(todoRepository, never()).findResponses(any());
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    void testBulkUpdate_idsAndFilter_throwsIllegalArgumentException() {
+        // Arrange
+        BulkTodoRequest request = new BulkTodoRequest(BulkTodoRequest.Action.DELETE, List.of("t1"),
+                new BulkTodoRequest.Filter("alice@example.com", null), null, null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> todoService.bulkUpdate(request));
+        verifyNoInteractions(todoRepository);
+    }
+}
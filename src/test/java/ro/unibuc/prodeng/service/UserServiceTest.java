@@ -1,25 +1,52 @@
 package ro.unibuc.prodeng.service;
 
+import org.bson.BsonDocument;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import ro.unibuc.prodeng.cache.UserCache;
+import ro.unibuc.prodeng.event.UserRenamedEvent;
 import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.repository.TodoRepository;
 import ro.unibuc.prodeng.repository.UserRepository;
 import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.response.BatchItemResponse;
+import ro.unibuc.prodeng.response.BatchItemStatus;
+import ro.unibuc.prodeng.response.PageResponse;
 import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
 import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.PreconditionFailedException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
@@ -28,31 +55,78 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
     @InjectMocks
     private UserService userService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "maxPageSize", 1000);
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.ORPHAN);
+        ReflectionTestUtils.setField(userService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(userService, "batchChunkSize", 2);
+    }
+
+    @Test
+    void testGetAllUsers_withMultipleUsers_returnsFirstPageOfMaxSize() {
+        // Arrange
+        List<UserEntity> users = Arrays.asList(
+                new UserEntity("1", "Alice", "alice@example.com", 0L, null),
+                new UserEntity("2", "Bob", "bob@example.com", 0L, null)
+        );
+        when(userRepository.findPage(null, 1001, Set.of())).thenReturn(users);
+
+        // Act
+        PageResponse<UserResponse> result = userService.getAllUsers();
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertEquals("Alice", result.items().get(0).name());
+        assertEquals("Bob", result.items().get(1).name());
+        assertNull(result.nextCursor());
+        verify(userRepository, never()).findAll();
+    }
+
     @Test
-    void testGetAllUsers_withMultipleUsers_returnsAllUsers() {
+    void testGetUsersPage_moreUsersThanLimit_returnsPageWithCursor() {
         // Arrange
         List<UserEntity> users = Arrays.asList(
-                new UserEntity("1", "Alice", "alice@example.com"),
-                new UserEntity("2", "Bob", "bob@example.com")
+                new UserEntity("65f000000000000000000001", "Alice", "alice@example.com", 0L, null),
+                new UserEntity("65f000000000000000000002", "Bob", "bob@example.com", 0L, null),
+                new UserEntity("65f000000000000000000003", "Carol", "carol@example.com", 0L, null)
         );
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findPage(null, 3, Set.of())).thenReturn(users);
 
         // Act
-        List<UserResponse> result = userService.getAllUsers();
+        PageResponse<UserResponse> page = userService.getUsersPage(null, 2, null);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals("Alice", result.get(0).name());
-        assertEquals("Bob", result.get(1).name());
+        assertEquals(2, page.items().size());
+        assertEquals("Bob", page.items().get(1).name());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetUsersPage_unknownProjectionField_throwsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(null, 10, Set.of("password")));
     }
 
     @Test
     void testGetUserById_existingUserRequested_returnsUser() throws EntityNotFoundException {
         // Arrange
-        UserEntity user = new UserEntity("1", "Alice", "alice@example.com");
+        UserEntity user = new UserEntity("1", "Alice", "alice@example.com", 0L, null);
         when(userRepository.findById("1")).thenReturn(Optional.of(user));
 
         // Act
@@ -82,7 +156,7 @@ class UserServiceTest {
             UserEntity entity = invocation.getArgument(0);
             // Simulate MongoDB generating an ID for new entities
             String id = "generated-id-123";
-            return new UserEntity(id, entity.name(), entity.email());
+            return new UserEntity(id, entity.name(), entity.email(), 0L, null);
         });
 
         // Act
@@ -96,55 +170,231 @@ class UserServiceTest {
         verify(userRepository, times(1)).save(any(UserEntity.class));
     }
 
+    @Test
+    void testCreateUser_emailAlreadyExists_throwsEmailAlreadyExistsException() {
+        // Arrange
+        CreateUserRequest request = new CreateUserRequest("Alice", "alice@example.com");
+        when(userRepository.save(any(UserEntity.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        // Act & Assert
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.createUser(request));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void testChangeName_existingUserRequested_changesNameSuccessfully() throws EntityNotFoundException {
         // Arrange
-        UserEntity existing = new UserEntity("1", "Alice", "alice@example.com");
-        when(userRepository.findById("1")).thenReturn(Optional.of(existing));
-        when(userRepository.save(any(UserEntity.class))).thenAnswer(invocation -> {
-            UserEntity entity = invocation.getArgument(0);
-            // Simulate MongoDB generating an ID for new entities
-            String id = entity.id() == null ? "generated-id-123" : entity.id();
-            return new UserEntity(id, entity.name(), entity.email());
-        });
+        UserEntity renamed = new UserEntity("1", "Alicia", "alice@example.com", 1L, null);
+        when(userRepository.updateById(eq("1"), isNull(), any(Update.class))).thenReturn(Optional.of(renamed));
 
         // Act
-        UserResponse result = userService.changeName("1", "Alicia");
+        UserResponse result = userService.changeName("1", "Alicia", null);
 
         // Assert
         assertNotNull(result);
         assertEquals("1", result.id());
         assertEquals("Alicia", result.name());
         assertEquals("alice@example.com", result.email());
+        assertEquals(1L, result.version());
+        verify(userRepository, never()).save(any(UserEntity.class));
+        verify(eventPublisher, times(1)).publishEvent(any(UserRenamedEvent.class));
     }
 
     @Test
     void testChangeName_nonExistingUserRequested_throwsEntityNotFoundException() {
         // Arrange
-        when(userRepository.findById("999")).thenReturn(Optional.empty());
+        when(userRepository.updateById(eq("999"), isNull(), any(Update.class))).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> userService.changeName("999", "NewName"));
+        assertThrows(EntityNotFoundException.class, () -> userService.changeName("999", "NewName", null));
     }
 
     @Test
-    void testDeleteUser_existingUserRequested_deletesSuccessfully() throws EntityNotFoundException {
+    void testChangeName_staleExpectedVersion_throwsPreconditionFailedException() {
         // Arrange
+        when(userRepository.updateById(eq("1"), eq(2L), any(Update.class))).thenReturn(Optional.empty());
         when(userRepository.existsById("1")).thenReturn(true);
 
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> userService.changeName("1", "Alicia", 2L));
+        verify(eventPublisher, never()).publishEvent(any(UserRenamedEvent.class));
+    }
+
+    @Test
+    void testDeleteUser_existingUserRequested_deletesSuccessfully() throws EntityNotFoundException {
+        // Arrange
+        when(userRepository.removeById("1", null)).thenReturn(1L);
+
         // Act
-        userService.deleteUser("1");
+        userService.deleteUser("1", null);
 
         // Assert
-        verify(userRepository, times(1)).deleteById("1");
+        verify(userRepository, never()).existsById(anyString());
+        verify(todoRepository, times(1)).updateByAssignedUserId(eq("1"), any(Update.class));
     }
 
     @Test
     void testDeleteUser_nonExistingUserRequested_throwsEntityNotFoundException() {
         // Arrange
-        when(userRepository.existsById("999")).thenReturn(false);
+        when(userRepository.removeById("999", null)).thenReturn(0L);
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> userService.deleteUser("999"));
+        assertThrows(EntityNotFoundException.class, () -> userService.deleteUser("999", null));
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void testDeleteUser_deletePolicy_deletesTodosInOneCall() throws EntityNotFoundException {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.DELETE);
+        when(userRepository.removeById("1", null)).thenReturn(1L);
+
+        // Act
+        userService.deleteUser("1", null);
+
+        // Assert
+        verify(todoRepository, times(1)).deleteByAssignedUserId("1");
+    }
+
+    @Test
+    void testDeleteUser_reassignPolicy_movesTodosToConfiguredUser() throws EntityNotFoundException {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.REASSIGN);
+        ReflectionTestUtils.setField(userService, "reassignToEmail", "frodo@theshire.me");
+        when(userRepository.findByEmail("frodo@theshire.me"))
+                .thenReturn(Optional.of(new UserEntity("2", "Frodo", "frodo@theshire.me", 0L, null)));
+        when(userRepository.removeById("1", null)).thenReturn(1L);
+
+        // Act
+        userService.deleteUser("1", null);
+
+        // Assert
+        verify(todoRepository, times(1)).updateByAssignedUserId(eq("1"), argThat(update ->
+                "2".equals(update.getUpdateObject().get("$set", Document.class).get("assignedUserId"))));
+    }
+
+    @Test
+    void testDeleteUser_reassignTargetMissing_deletesNothing() {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.REASSIGN);
+        ReflectionTestUtils.setField(userService, "reassignToEmail", "frodo@theshire.me");
+        when(userRepository.findByEmail("frodo@theshire.me")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ReassignTargetMissingException.class, () -> userService.deleteUser("1", null));
+        verify(userRepository, never()).removeById(anyString(), any());
+        verifyNoInteractions(todoRepository);
+    }
+
+    @Test
+    void testGetUserEntityById_repeatedLookups_hitsRepositoryOnce() throws EntityNotFoundException {
+        // Arrange
+        UserEntity user = new UserEntity("1", "Alice", "alice@example.com", 0L, null);
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+
+        // Act
+        userService.getUserEntityById("1");
+        UserEntity byEmail = userService.getUserEntityByEmail("alice@example.com");
+
+        // Assert
+        assertEquals(user, byEmail);
+        verify(userRepository, times(1)).findById("1");
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testChangeName_cachedUser_servesUpdatedName() throws EntityNotFoundException {
+        // Arrange
+        UserEntity existing = new UserEntity("1", "Alice", "alice@example.com", 0L, null);
+        when(userRepository.findById("1")).thenReturn(Optional.of(existing));
+        when(userRepository.updateById(eq("1"), isNull(), any(Update.class)))
+                .thenReturn(Optional.of(new UserEntity("1", "Alicia", "alice@example.com", 1L, null)));
+        userService.getUserEntityById("1");
+
+        // Act
+        userService.changeName("1", "Alicia", null);
+
+        // Assert
+        assertEquals("Alicia", userService.getUserEntityByEmail("alice@example.com").name());
+        assertEquals("Alicia", userService.getUserEntityById("1").name());
+    }
+
+    @Test
+    void testGetUserEntitiesByEmails_repeatedEmail_keepsFirstMatchAndCachesUsers() throws EntityNotFoundException {
+        // Arrange
+        UserEntity first = new UserEntity("1", "Alice", "alice@example.com", 0L, null);
+        UserEntity second = new UserEntity("2", "Alice Copy", "alice@example.com", 0L, null);
+        when(userRepository.findByEmailIn(any())).thenReturn(List.of(first, second));
+
+        // Act
+        Map<String, UserEntity> result = userService.getUserEntitiesByEmails(List.of("alice@example.com"));
+
+        // Assert
+        assertEquals(Map.of("alice@example.com", first), result);
+        userService.getUserEntityById("1");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testCreateUsers_duplicateEmails_reportsDuplicatesAndInsertsTheRestPerChunk() {
+        // Arrange
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Alice", "alice@example.com"),
+                new CreateUserRequest("Bob", "bob@example.com"),
+                new CreateUserRequest("Alice again", "alice@example.com"),
+                new CreateUserRequest("Carol", "carol@example.com"));
+        when(userRepository.findByEmailIn(any()))
+                .thenReturn(List.of(new UserEntity("9", "Bob", "bob@example.com", 0L, null)))
+                .thenReturn(List.of());
+        when(userRepository.insertUnordered(any())).thenReturn(Map.of());
+        List<BatchItemResponse<UserResponse>> results = new ArrayList<>();
+
+        // Act
+        userService.createUsers(requests.iterator(), results::add);
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BatchItemResponse::index).toList());
+        assertEquals(List.of(BatchItemStatus.CREATED, BatchItemStatus.DUPLICATE, BatchItemStatus.DUPLICATE, BatchItemStatus.CREATED),
+                results.stream().map(BatchItemResponse::status).toList());
+        // One lookup and one bulk insert per chunk of two
+        verify(userRepository, times(2)).findByEmailIn(any());
+        verify(userRepository, times(2)).insertUnordered(any());
+        verify(userRepository).findByEmailIn(List.of("carol@example.com"));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateUsers_concurrentlyCreatedEmail_reportsDuplicateFromUniqueIndex() {
+        // Arrange
+        when(userRepository.findByEmailIn(any())).thenReturn(List.of());
+        when(userRepository.insertUnordered(any())).thenReturn(Map.of(0, new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)));
+        List<BatchItemResponse<UserResponse>> results = new ArrayList<>();
+
+        // Act
+        userService.createUsers(List.of(new CreateUserRequest("Alice", "alice@example.com")).iterator(), results::add);
+
+        // Assert
+        assertEquals(BatchItemStatus.DUPLICATE, results.getFirst().status());
+    }
+
+    @Test
+    void testCreateUsers_moreRowsThanLimit_stopsAtLimit() {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "maxBatchSize", 2);
+        when(userRepository.findByEmailIn(any())).thenReturn(List.of());
+        when(userRepository.insertUnordered(any())).thenReturn(Map.of());
+        List<CreateUserRequest> requests = List.of(
+                new CreateUserRequest("Alice", "alice@example.com"),
+                new CreateUserRequest("Bob", "bob@example.com"),
+                new CreateUserRequest("Carol", "carol@example.com"));
+        List<BatchItemResponse<UserResponse>> results = new ArrayList<>();
+
+        // Act
+        userService.createUsers(requests.iterator(), results::add);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(BatchItemStatus.INVALID, results.get(2).status());
+        assertEquals("Batch size exceeds the limit of 2", results.get(2).error());
     }
 }
@@ -0,0 +1,231 @@
+package ro.unibuc.prodeng.service.reactive;
+
+import ro.unibuc.prodeng.IntegrationTestBase;
+import ro.unibuc.prodeng.exception.EmailAlreadyExistsException;
+import ro.unibuc.prodeng.exception.EntityNotFoundException;
+import ro.unibuc.prodeng.exception.ReassignTargetMissingException;
+import ro.unibuc.prodeng.model.TodoEntity;
+import ro.unibuc.prodeng.model.UserEntity;
+import ro.unibuc.prodeng.request.AssignTodoRequest;
+import ro.unibuc.prodeng.request.CreateTodoRequest;
+import ro.unibuc.prodeng.request.CreateUserRequest;
+import ro.unibuc.prodeng.request.EditTodoRequest;
+import ro.unibuc.prodeng.response.TodoResponse;
+import ro.unibuc.prodeng.response.UserResponse;
+import ro.unibuc.prodeng.service.AssigneeDeletionPolicy;
+
+import org.bson.Document;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Reactive services Integration Tests")
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+class ReactiveServicesIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private ReactiveTodoService todoService;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void cleanUp() {
+        mongoTemplate.remove(new Query(), TodoEntity.class);
+        mongoTemplate.remove(new Query(), UserEntity.class);
+    }
+
+    @AfterEach
+    void restoreDeletionPolicy() {
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.ORPHAN);
+        ReflectionTestUtils.setField(userService, "reassignToEmail", "frodo@theshire.me");
+    }
+
+    @Test
+    void testCreateTodo_existingAssignee_canBeReadBack() {
+        // Arrange
+        userService.createUser(new CreateUserRequest("Alice", "alice@example.com")).block();
+
+        // Act
+        TodoResponse created = todoService.createTodo(new CreateTodoRequest("Buy milk", "alice@example.com")).block();
+
+        // Assert
+        assertNotNull(created);
+        assertEquals(0L, created.version());
+        assertEquals(created, todoService.getTodoById(created.id()).block());
+    }
+
+    @Test
+    void testCreateUser_emailAlreadyExists_throwsEmailAlreadyExistsException() {
+        // Arrange
+        userService.createUser(new CreateUserRequest("Alice", "alice@example.com")).block();
+
+        // Act & Assert
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.createUser(new CreateUserRequest("Alice Again", "alice@example.com")).block());
+    }
+
+    @Test
+    void testDeleteTodo_existingTodo_isGone() {
+        // Arrange
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", userId);
+
+        // Act
+        todoService.deleteTodo(todoId).block();
+
+        // Assert
+        assertThrows(EntityNotFoundException.class, () -> todoService.getTodoById(todoId).block());
+        assertThrows(EntityNotFoundException.class, () -> todoService.deleteTodo(todoId).block());
+    }
+
+    @Test
+    void testDeleteUser_defaultOrphanPolicy_todoIsReadableWithoutAssignee() {
+        // Arrange
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", userId);
+
+        // Act
+        userService.deleteUser(userId).block();
+
+        // Assert
+        TodoResponse orphan = todoService.getTodoById(todoId).block();
+        assertNotNull(orphan);
+        assertNull(orphan.assigneeName());
+        assertNull(orphan.assigneeEmail());
+        assertEquals(1L, orphan.version());
+        assertThrows(EntityNotFoundException.class, () -> userService.getUserById(userId).block());
+    }
+
+    @Test
+    void testDeleteUser_reassignPolicy_movesTodosToReassignTarget() {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.REASSIGN);
+        ReflectionTestUtils.setField(userService, "reassignToEmail", "bob@example.com");
+        String aliceId = insertLegacyUser("Alice", "alice@example.com");
+        insertLegacyUser("Bob", "bob@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", aliceId);
+
+        // Act
+        userService.deleteUser(aliceId).block();
+
+        // Assert
+        TodoResponse reassigned = todoService.getTodoById(todoId).block();
+        assertNotNull(reassigned);
+        assertEquals("bob@example.com", reassigned.assigneeEmail());
+    }
+
+    @Test
+    void testDeleteUser_reassignTargetMissing_throwsAndKeepsUser() {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "deletionPolicy", AssigneeDeletionPolicy.REASSIGN);
+        ReflectionTestUtils.setField(userService, "reassignToEmail", "nobody@example.com");
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+
+        // Act & Assert
+        assertThrows(ReassignTargetMissingException.class, () -> userService.deleteUser(userId).block());
+        assertNotNull(userService.getUserById(userId).block());
+    }
+
+    @Test
+    void testDeleteUser_nonExistingUser_throwsEntityNotFoundException() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class,
+                () -> userService.deleteUser("000000000000000000000000").block());
+    }
+
+    @Test
+    void testSetDone_legacyTodoWithoutVersion_updatesAndReturnsFirstVersion() {
+        // Arrange
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", userId);
+
+        // Act
+        TodoResponse result = todoService.setDone(todoId, true).block();
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.done());
+        assertEquals("alice@example.com", result.assigneeEmail());
+        assertEquals(1L, result.version());
+        assertEquals(1, mongoTemplate.findAll(TodoEntity.class).size());
+    }
+
+    @Test
+    void testEdit_legacyTodoWithoutVersion_updatesDescription() {
+        // Arrange
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", userId);
+
+        // Act
+        TodoResponse result = todoService.edit(todoId, new EditTodoRequest("Edited")).block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals("Edited", result.description());
+        assertEquals(1L, result.version());
+    }
+
+    @Test
+    void testAssign_legacyTodoWithoutVersion_movesTodoToNewAssignee() {
+        // Arrange
+        String aliceId = insertLegacyUser("Alice", "alice@example.com");
+        insertLegacyUser("Bob", "bob@example.com");
+        String todoId = insertLegacyTodo("Legacy todo", aliceId);
+
+        // Act
+        TodoResponse result = todoService.assign(todoId, new AssignTodoRequest("bob@example.com")).block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals("bob@example.com", result.assigneeEmail());
+        assertEquals(1L, result.version());
+        assertEquals(1, todoService.getTodosByUserEmail("bob@example.com").collectList().block().size());
+        assertTrue(todoService.getTodosByUserEmail("alice@example.com").collectList().block().isEmpty());
+    }
+
+    @Test
+    void testChangeName_legacyUserWithoutVersion_renamesAndReturnsFirstVersion() {
+        // Arrange
+        String userId = insertLegacyUser("Alice", "alice@example.com");
+
+        // Act
+        UserResponse result = userService.changeName(userId, "Alice Renamed").block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals("Alice Renamed", result.name());
+        assertEquals(1L, result.version());
+        assertEquals(1, mongoTemplate.findAll(UserEntity.class).size());
+    }
+
+    @Test
+    void testSetDone_nonExistingTodo_throwsEntityNotFoundException() {
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class,
+                () -> todoService.setDone("000000000000000000000000", true).block());
+    }
+
+    // Written without version and updatedAt, as documents created before versioning were
+    private String insertLegacyUser(String name, String email) {
+        Document user = new Document("name", name).append("email", email);
+        mongoTemplate.insert(user, "users");
+        return user.getObjectId("_id").toHexString();
+    }
+
+    private String insertLegacyTodo(String description, String assignedUserId) {
+        Document todo = new Document("description", description)
+                .append("done", false)
+                .append("assignedUserId", assignedUserId);
+        mongoTemplate.insert(todo, "todos");
+        return todo.getObjectId("_id").toHexString();
+    }
+}
@@ -0,0 +1,58 @@
+package ro.unibuc.prodeng.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSpanExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testExport_nestedSpans_writesOneJsonLinePerSpan() throws Exception {
+        // Arrange
+        Path file = directory.resolve("traces/spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, objectMapper);
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Tracer tracer = tracerProvider.get("test");
+
+        // Act
+        Span parent = tracer.spanBuilder("TodoController.getTodoById").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            tracer.spanBuilder("TodoService.getTodoById").setAttribute("code.function", "getTodoById").startSpan().end();
+        } finally {
+            parent.end();
+        }
+        tracerProvider.shutdown();
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode child = objectMapper.readTree(lines.get(0));
+        JsonNode root = objectMapper.readTree(lines.get(1));
+        assertEquals("TodoService.getTodoById", child.get("name").asText());
+        assertEquals("getTodoById", child.get("attributes").get("code.function").asText());
+        assertEquals(root.get("traceId").asText(), child.get("traceId").asText());
+        assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+        assertFalse(root.has("parentSpanId"));
+    }
+}